@@ -0,0 +1,129 @@
+package com.example.infer;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+// SensorManager实现：maxReportLatencyUs > 0且传感器有硬件FIFO时用批量上报的registerListener重载，
+// 读数在FIFO中攒够延迟再一次性交付，传感器线程不必每个读数都唤醒；flush在触摸边界把FIFO中的读数立即取出。
+// 时间戳取SensorEvent.timestamp（采样时刻），而不是交付时刻。它通常与SystemClock.elapsedRealtimeNanos同基准，
+// 开始时记下两个时钟的差值换算到currentTimeMillis；个别设备的时间基准不同（与elapsedRealtimeNanos相差超过
+// CLOCK_MISMATCH_NANOS）时，改为按「交付时刻 - 事件时间」的最小值估计差值（交付只会晚于采样）。
+// 回调在构造时给定的Handler线程上执行
+public class AndroidSensorSource implements SensorSource, SensorEventListener {
+    private static final String TAG = "AndroidSensorSource";
+    private static final long CLOCK_MISMATCH_NANOS = 10_000_000_000L;
+
+    private final SensorManager sensorManager;
+    private final Handler handler;
+    private final Sensor[] sensors = new Sensor[3];
+    private final int maxReportLatencyUs;
+    private volatile Callback callback;
+    private boolean started;
+    // 以下仅在Handler线程上使用
+    private long clockOffsetNanos;
+    private boolean offsetEstimated; // 时间基准不同，差值按交付时刻估计
+    private boolean offsetChecked;
+
+    // maxReportLatencyUs为0时不批量上报
+    public AndroidSensorSource(SensorManager sensorManager, Sensor accelerometer, Sensor gyroscope, Sensor magnetometer,
+                               Handler handler, int maxReportLatencyUs) {
+        this.sensorManager = sensorManager;
+        this.handler = handler;
+        this.maxReportLatencyUs = Math.max(0, maxReportLatencyUs);
+        sensors[ACCELEROMETER] = accelerometer;
+        sensors[GYROSCOPE] = gyroscope;
+        sensors[MAGNETOMETER] = magnetometer;
+    }
+
+    @Override
+    public boolean has(int sensor) {
+        return sensors[sensor] != null;
+    }
+
+    @Override
+    public synchronized void start(int sampleRateHz, Callback callback) {
+        if (started) return;
+        this.callback = callback;
+        handler.post(() -> {
+            clockOffsetNanos = System.currentTimeMillis() * 1_000_000L - SystemClock.elapsedRealtimeNanos();
+            offsetEstimated = false;
+            offsetChecked = false;
+        });
+        int periodUs = 1_000_000 / sampleRateHz;
+        try {
+            for (Sensor sensor : sensors) {
+                if (sensor == null) continue;
+                boolean batched = maxReportLatencyUs > 0 && sensor.getFifoMaxEventCount() > 0;
+                boolean ok = batched
+                        ? sensorManager.registerListener(this, sensor, periodUs, maxReportLatencyUs, handler)
+                        : sensorManager.registerListener(this, sensor, periodUs, handler);
+                if (!ok) {
+                    throw new IllegalStateException("传感器注册失败：type=" + sensor.getType());
+                }
+            }
+        } catch (RuntimeException e) {
+            sensorManager.unregisterListener(this);
+            this.callback = null;
+            throw e;
+        }
+        started = true;
+    }
+
+    @Override
+    public void flush() {
+        handler.post(() -> {
+            if (callback != null) sensorManager.flush(this);
+        });
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!started) return;
+        sensorManager.unregisterListener(this);
+        callback = null;
+        started = false;
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        Callback cb = callback;
+        if (cb == null || event == null || event.values == null) return;
+
+        int sensor;
+        switch (event.sensor.getType()) {
+            case Sensor.TYPE_LINEAR_ACCELERATION:
+                sensor = ACCELEROMETER;
+                break;
+            case Sensor.TYPE_GYROSCOPE:
+                sensor = GYROSCOPE;
+                break;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                sensor = MAGNETOMETER;
+                break;
+            default:
+                return;
+        }
+
+        if (!offsetChecked) {
+            offsetChecked = true;
+            long lag = SystemClock.elapsedRealtimeNanos() - event.timestamp;
+            if (lag < 0 || lag > CLOCK_MISMATCH_NANOS) {
+                Log.w(TAG, "传感器时间戳与elapsedRealtimeNanos基准不同，按交付时刻估计时钟差");
+                offsetEstimated = true;
+                clockOffsetNanos = Long.MAX_VALUE;
+            }
+        }
+        if (offsetEstimated) {
+            clockOffsetNanos = Math.min(clockOffsetNanos, System.currentTimeMillis() * 1_000_000L - event.timestamp);
+        }
+        cb.onSample(sensor, event.timestamp + clockOffsetNanos, event.values[0], event.values[1], event.values[2]);
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {}
+}
@@ -0,0 +1,14 @@
+package com.example.infer;
+
+// OCSVM决策函数（不含截距）：sum(dualCoef[i] * K(x, sv[i]))
+// 精确核计算、近似核映射等不同打分方式都实现该接口，由OCSVMModel统一加截距和取反
+public interface DecisionFunction {
+    double decision(float[] x);
+
+    // 批量打分：同一收集窗口内的所有会话一次完成
+    default void decisionBatch(float[][] xs, double[] out) {
+        for (int q = 0; q < xs.length; q++) {
+            out[q] = decision(xs[q]);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.infer;
+
+// 快速指数近似：exp(-t)，t >= 0
+// t·log2(e) 拆成整数部分n和小数部分f，2^-n 直接构造浮点指数位，2^-f 用8阶多项式（Horner）计算，
+// 在 t ∈ [0, 87] 上相对误差 < 2e-7，t更大时返回0（真实值 < 1.7e-38）
+public final class FastExp {
+    private static final double LOG2E = 1.4426950408889634;
+    private static final double LN2 = 0.6931471805599453;
+    public static final double MAX_RELATIVE_ERROR = 2e-7;
+
+    private FastExp() {}
+
+    public static double expNeg(double t) {
+        if (t <= 0) return 1.0;
+        double y = t * LOG2E;
+        if (y >= 126) return 0.0;
+        int n = (int) y;
+        double u = (y - n) * LN2; // exp(-u)，u ∈ [0, ln2)
+        double p = 1 - u * (1 - u * (0.5 - u * (1.0 / 6 - u * (1.0 / 24 - u * (1.0 / 120
+                - u * (1.0 / 720 - u * (1.0 / 5040 - u * (1.0 / 40320))))))));
+        return p * Float.intBitsToFloat((127 - n) << 23);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.infer;
+
+// 特征预处理（均值填充+标准化），与Python端 SimpleImputer(mean) + StandardScaler 的变换一致：
+//   x' = ((isNaN(x) ? imputerMean : x) - scalerMean) / scalerStd，标准差为0的特征记为0
+// 构造时预先算好 1/std（零方差特征取0，乘法后自然得0，无需分支）和每个特征缺失时的标准化结果，
+// 变换时每个元素只有一次NaN判断、一次减法和一次乘法，且不分配内存。
+// 设备端判定、批量工具和基准测试都应通过同一个实例做标准化，保证结果一致
+public class FeatureTransformer {
+    private final int dims;
+    private final float[] scalerMean;
+    private final float[] inverseStd;     // 1/std，零方差特征为0
+    private final float[] imputedScaled;  // 缺失值填充后的标准化结果
+    private final boolean[] zeroVariance;
+
+    public FeatureTransformer(float[] imputerMean, float[] scalerMean, float[] scalerStd) {
+        if (imputerMean.length != scalerMean.length || scalerStd.length != scalerMean.length) {
+            throw new IllegalArgumentException("填充/标准化参数长度不一致：imputer=" + imputerMean.length
+                    + "，mean=" + scalerMean.length + "，std=" + scalerStd.length);
+        }
+        dims = scalerMean.length;
+        this.scalerMean = scalerMean.clone();
+        inverseStd = new float[dims];
+        imputedScaled = new float[dims];
+        zeroVariance = new boolean[dims];
+        for (int j = 0; j < dims; j++) {
+            zeroVariance[j] = scalerStd[j] == 0;
+            inverseStd[j] = zeroVariance[j] ? 0f : 1f / scalerStd[j];
+            imputedScaled[j] = (imputerMean[j] - scalerMean[j]) * inverseStd[j];
+        }
+    }
+
+    public static FeatureTransformer forModel(OCSVMModel model) {
+        return new FeatureTransformer(model.getImputerMean(), model.getScalerMean(), model.getScalerStd());
+    }
+
+    // 原地变换一条特征向量，返回被填充的缺失特征数
+    public int transformInPlace(float[] features) {
+        return transform(features, features);
+    }
+
+    // 将raw变换后写入out（可与raw为同一数组），返回被填充的缺失特征数
+    public int transform(float[] raw, float[] out) {
+        checkDims(raw);
+        checkDims(out);
+        int imputed = 0;
+        for (int j = 0; j < dims; j++) {
+            float value = raw[j];
+            if (value != value) { // NaN
+                out[j] = imputedScaled[j];
+                imputed++;
+            } else {
+                out[j] = (value - scalerMean[j]) * inverseStd[j];
+            }
+        }
+        return imputed;
+    }
+
+    // 批量原地变换，返回被填充的缺失特征总数
+    public int transformBatchInPlace(float[][] batch) {
+        int imputed = 0;
+        for (float[] features : batch) {
+            imputed += transform(features, features);
+        }
+        return imputed;
+    }
+
+    public int getDims() {
+        return dims;
+    }
+
+    public boolean isZeroVariance(int feature) {
+        return zeroVariance[feature];
+    }
+
+    private void checkDims(float[] features) {
+        if (features.length != dims) {
+            throw new IllegalArgumentException("特征维度错误：预期" + dims + "，实际" + features.length);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.infer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 采集过程中按触摸动作在线累积特征：按下时开始，之后写入原始数据缓冲区的每一行（触摸行和传感器行）都同步喂给提取器，
+// 抬起后即得到该次滑动的74维特征，收集窗口结束时无需再重建会话、重新遍历。
+// 行追加时传感器读数已经齐全（融合重采样行，触摸行带最新融合读数），到来即计入累积器；
+// 抬起后触摸状态复位（liftFinishRunnable，约30ms）后的第一行到来时，或flush时定稿。
+// 行的筛选与去重规则与收集结束后的批处理路径一致（按下/滑动中/抬起三类，相同时间且坐标差<0.1视为重复），
+// 判定时仍以批处理会话为准，按动作ID取用采样数一致的实时结果。
+// 设置Listener后每次滑动定稿时立即回调，调用方可把后续的填充、标准化和打分交给后台线程与采集并行。
+// 所有方法都应在调用方持有dataLock时调用
+public class LiveFeatureTracker {
+    private final TouchFeatureExtractor extractor = new TouchFeatureExtractor();
+    private final Map<Integer, Result> results = new HashMap<>();
+    private Listener listener;
+
+    private boolean open;
+    private int actionId;
+    private boolean hasLast; // 上一个计入的行，用于去重
+    private long lastTime;
+    private float lastX, lastY;
+    private boolean hasPress, hasSlide, hasRelease;
+    private long startTime;
+    private long releaseTime;
+    private byte direction;
+
+    // 滑动定稿回调，在调用onRowAdded/flush的线程上、持有dataLock时执行，不应阻塞
+    public interface Listener {
+        void onSwipeFinished(int actionId, Result result);
+    }
+
+    // 一次滑动的实时提取结果
+    public static class Result {
+        public final float[] features;
+        public final int sampleCount;
+        public final long startTime;
+        public final long endTime;
+        public final String direction;
+
+        Result(float[] features, int sampleCount, long startTime, long endTime, String direction) {
+            this.features = features;
+            this.sampleCount = sampleCount;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.direction = direction;
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // ACTION_DOWN时调用；上一个动作已抬起则先定稿，未抬起的直接丢弃（批处理路径同样不会把它算作有效会话）
+    public void begin(int actionId, boolean[] required) {
+        flush();
+        this.actionId = actionId;
+        extractor.begin(required);
+        open = true;
+        hasLast = false;
+        hasPress = false;
+        hasSlide = false;
+        hasRelease = false;
+        direction = RawSampleBuffer.DIRECTION_NONE;
+    }
+
+    // 新行追加到缓冲区之后调用
+    public void onRowAdded(RawSampleBuffer buffer, int row) {
+        if (!open) return;
+        int rowAction = buffer.actionId[row];
+        byte type = buffer.touchType[row];
+        if (hasRelease && (rowAction != actionId || type != RawSampleBuffer.TOUCH_RELEASE)) {
+            // 抬起后、触摸状态复位前的传感器行仍标记为「抬起」，批处理路径把它们算入本次动作（区间终点取最后一个抬起行）；
+            // 复位后的第一行到来时本次动作结束
+            finish();
+            return;
+        }
+        if (rowAction != actionId || type == RawSampleBuffer.TOUCH_NONE) return;
+
+        long time = buffer.time[row];
+        if (hasLast && time == lastTime
+                && Math.abs(buffer.x[row] - lastX) < 0.1f
+                && Math.abs(buffer.y[row] - lastY) < 0.1f) {
+            return;
+        }
+        accept(buffer, row);
+        hasLast = true;
+        lastTime = time;
+        lastX = buffer.x[row];
+        lastY = buffer.y[row];
+
+        if (type == RawSampleBuffer.TOUCH_PRESS) {
+            if (!hasPress) startTime = time;
+            hasPress = true;
+        }
+        if (type == RawSampleBuffer.TOUCH_SLIDE) hasSlide = true;
+        if (type == RawSampleBuffer.TOUCH_RELEASE) {
+            if (!hasRelease) direction = buffer.direction[row];
+            hasRelease = true;
+            releaseTime = time;
+        }
+    }
+
+    // 收集结束时调用：已抬起的动作立即定稿，尚未抬起的丢弃
+    public void flush() {
+        if (open && hasRelease) {
+            finish();
+        }
+        open = false;
+    }
+
+    // 取出所有已定稿的结果（动作ID → 结果）并清空
+    public Map<Integer, Result> drainResults() {
+        Map<Integer, Result> drained = new HashMap<>(results);
+        results.clear();
+        return drained;
+    }
+
+    public void clear() {
+        open = false;
+        hasLast = false;
+        results.clear();
+    }
+
+    private void finish() {
+        open = false;
+        hasLast = false;
+        if (!hasPress || !hasSlide || !hasRelease) return;
+
+        float[] features = new float[TouchFeatureExtractor.FEATURE_COUNT];
+        if (extractor.finish(features)) {
+            Result result = new Result(features, extractor.getSampleCount(), startTime, releaseTime,
+                    RawSampleBuffer.directionName(direction));
+            results.put(actionId, result);
+            if (listener != null) {
+                listener.onSwipeFinished(actionId, result);
+            }
+        }
+    }
+
+    private void accept(RawSampleBuffer b, int row) {
+        extractor.acceptTouch(b.x[row], b.y[row], b.pressure[row], b.size[row], b.time[row]);
+        float[][] s = b.sensors;
+        extractor.acceptSensors(s[0][row], s[1][row], s[2][row],
+                s[3][row], s[4][row], s[5][row],
+                s[6][row], s[7][row], s[8][row]);
+    }
+}
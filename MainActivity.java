@@ -1,9 +1,8 @@
 package com.example.infer;
 
 import android.content.Context;
+import android.content.pm.PackageManager;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.os.Bundle;
 import android.os.Environment;
@@ -32,28 +31,29 @@ import androidx.work.WorkerParameters;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -73,37 +73,94 @@ public class MainActivity extends AppCompatActivity {
 
     // 身份验证核心变量
     private static final int REQUIRED_TOUCH_COUNT = 3;
-    private List<AllDataModel> inferRawData = new ArrayList<>();
+    // 原始数据按来源分开追加到列式环形缓冲区（各自按时间有序），收集结束后多路归并；
+    // 传感器行是按选定采样率重采样后的融合9轴行，触摸行带上追加时最新的融合读数。容量按100Hz×10秒留足余量
+    private static final int RAW_BUFFER_CAPACITY = 8192;
+    private final RawSampleBuffer touchRawData = new RawSampleBuffer(RAW_BUFFER_CAPACITY);
+    private final RawSampleBuffer sensorRawData = new RawSampleBuffer(RAW_BUFFER_CAPACITY);
+    private final float[] latestSensorRow = new float[RawSampleBuffer.SENSOR_AXES]; // 最近一次融合读数，仅消费线程使用
+    // 消费线程按时间顺序重放的触摸状态，用于标注传感器行（批量交付的读数到达时UI上的触摸状态可能已经变化）
+    private byte sampleTouchType = RawSampleBuffer.TOUCH_NONE;
+    private byte sampleTouchDirection = RawSampleBuffer.DIRECTION_NONE;
+    private float sampleTouchX, sampleTouchY, samplePressure, sampleSize;
+    private int sampleActionId;
     private List<Float> inferScores = new ArrayList<>();
     private OCSVMModel ocsvmModel;
+    private OCSVMModelBundle modelBundle; // 按滑动方向路由的分模型，ocsvmModel为其中的全局模型
+    private volatile boolean[] requiredFeatures; // 模型声明需要的原始特征（74维下标），null表示全部需要
+    private final TouchFeatureExtractor featureExtractor = new TouchFeatureExtractor(); // 仅在判定线程中使用
+    private final SpectralFeatureExtractor spectralExtractor = new SpectralFeatureExtractor(); // 仅在判定线程中使用
+    private final LiveFeatureTracker liveFeatures = new LiveFeatureTracker(); // 采集时在线累积的每次滑动特征，由样本消费线程持有
+    // 每次滑动定稿后即在后台补齐特征并打分，与后续采集并行；传感器特征窗口向区间外扩展时不启用
+    private final SessionScoringPipeline sessionPipeline = new SessionScoringPipeline();
+    private final ExecutorService modelLoadExecutor = Executors.newSingleThreadExecutor();
+    private CompletableFuture<OCSVMModelBundle> modelReadyFuture; // 后台加载完成（或失败）后结束
+    private boolean pendingInferStart = false; // 模型加载期间点击了「身份验证」，加载完成后自动开始
+    // 加载后用合成向量预热打分路径，避免首次真实验证承担JIT编译开销
+    private static final boolean MODEL_WARM_UP = true;
+    private static final int MODEL_WARM_UP_ROUNDS = 20;
+    // 是否保存原始/处理后特征CSV（旁路输出，后台写入，判定不依赖它）
+    private static final boolean SAVE_FEATURE_CSV = true;
+    private final ExecutorService featureCsvExecutor = Executors.newSingleThreadExecutor();
     private boolean isInferring = false;
     private final float ANOMALY_THRESHOLD = 0.5f;
+    // 按本机用户（即模型对应的用户）的本人分数分布校准阈值：判定为本人的验证中低于ANOMALY_THRESHOLD的分数写入分位数草图并持久化，
+    // 样本足够后阈值取目标拒真率对应的分位数（只在ANOMALY_THRESHOLD以下的限度内收紧），此前使用ANOMALY_THRESHOLD
+    private static final boolean CALIBRATE_THRESHOLD = true;
+    private static final double TARGET_FALSE_REJECT_RATE = ThresholdCalibrator.DEFAULT_TARGET_FALSE_REJECT_RATE;
+    private static final String THRESHOLD_CALIBRATION_FILE = "score_sketch.bin";
+    private volatile ThresholdCalibrator thresholdCalibrator;
+    // 模型打分方式：EXACT为精确RBF核求和，RANDOM_FOURIER为随机傅里叶特征近似（大模型时打分成本固定），
+    // PRUNED为聚类剪枝（误差有界），INT8/FP16为量化存储（内存降为1/4、1/2）
+    private static final OCSVMModel.ScoringMode SCORING_MODE = OCSVMModel.ScoringMode.EXACT;
     private Handler collectHandler;
     private Runnable collectTimeoutRunnable;
 
     // 传感器+频率配置
     private SensorManager sensorManager;
     private Sensor accelerometer, gyroscope, magnetometer;
+    // 传感器读数来源：读数在硬件FIFO中最多缓存SENSOR_BATCH_LATENCY_US再批量交付（0为逐个交付），
+    // 时间戳取采样时刻并换算到触摸事件的时钟；触摸按下/抬起时flush，使动作边界附近的读数及时到达
+    private static final int SENSOR_BATCH_LATENCY_US = 100_000;
+    private SensorSource sensorSource;
     private boolean isSensorRegistered = false;
     private final int[] FIXED_HZ_OPTIONS = {5, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
     private List<Integer> supportedHzList = new ArrayList<>();
     private int selectedHz = 50;
     private int sensorDelay;
 
-    // 线程安全与临时数据
+    // 线程安全与临时数据：传感器线程（重采样后的融合行）和UI线程各自把事件写入自己的无锁队列（生产者不加锁、不阻塞），
+    // 发布后唤醒样本消费线程，由它按时间顺序取出事件写入原始数据缓冲区并驱动实时特征累积；两个队列都空时消费线程不加锁、一直休眠。
+    // dataLock只在消费线程与收集开始/结束、清理等控制操作之间互斥，生产者从不获取
+    private static final int SAMPLE_QUEUE_CAPACITY = 1024;
+    private static final long SAMPLE_RECHECK_NS = 10_000_000L; // 有事件但按时间尚未到齐时的复查间隔
+    // 两个队列由SampleQueueMerger按时间顺序交给消费线程：传感器行早于当前时间TOUCH_SETTLE_MS后即可写入；
+    // 触摸事件要等传感器水位越过它，传感器长时间无读数（未注册或中断）时最多等SENSOR_MAX_DELAY_MS
+    private static final long TOUCH_SETTLE_MS = 50;
+    private static final long SENSOR_MAX_DELAY_MS = SENSOR_BATCH_LATENCY_US / 1000 + 300;
+    private final SpscSampleQueue sensorQueue = new SpscSampleQueue(SAMPLE_QUEUE_CAPACITY);
+    private final SpscSampleQueue touchQueue = new SpscSampleQueue(SAMPLE_QUEUE_CAPACITY);
+    private final SampleQueueMerger sampleMerger =
+            new SampleQueueMerger(touchQueue, sensorQueue, TOUCH_SETTLE_MS, SENSOR_MAX_DELAY_MS);
+    private int sensorDroppedBase, touchDroppedBase; // 本次收集开始时两个队列的累计丢弃数
+    private AtomicBoolean sampleConsumerRunning; // 当前消费线程的停止标志，每个消费线程各有一个
+    private volatile Thread sampleConsumer;       // 当前消费线程，生产者发布后唤醒它
     private final ReentrantLock dataLock = new ReentrantLock();
     private volatile MotionEvent currentMotionEvent = null;
     private HandlerThread sensorThread;
     private Handler sensorHandler;
-    private String currentTouchType = "无触摸";
-    private String currentTouchDirection = "无";
+    // 以下仅在传感器线程中使用：各传感器最新值持有与重采样
+    private final SensorResampler sensorResampler = new SensorResampler();
+    private final SensorResampler.Sink fusedRowSink = this::enqueueSensorRow;
+    private byte currentTouchType = RawSampleBuffer.TOUCH_NONE;
+    private byte currentTouchDirection = RawSampleBuffer.DIRECTION_NONE;
     private float currentPressure = 0f;
     private float currentSize = 0f;
     private float currentTouchX = 0f;
     private float currentTouchY = 0f;
 
     // 核心配置：触摸时间范围管理
-    private final long FILTER_TIME_T = 0;
+    private final long FILTER_TIME_T = 0; // 传感器特征窗口前后扩展的毫秒数，须与训练时Python脚本的t相同
     private List<long[]> touchIntervals = new ArrayList<>();
     private long currentTouchStart = 0;
     private long currentTouchMaxLiftTime = 0;
@@ -211,7 +268,8 @@ public class MainActivity extends AppCompatActivity {
             return sb.toString();
         }
 
-        public static String getCsvHeader() {
+        // featureCount超过74时其后为频域特征（模型声明FLAG_SPECTRAL_FEATURES）
+        public static String getCsvHeader(int featureCount) {
             StringBuilder sb = new StringBuilder();
             sb.append("会话ID,触摸会话ID,提取时间戳,采样数,采样起始时间(毫秒),采样结束时间(毫秒),");
             String[] featureNames = {
@@ -239,12 +297,17 @@ public class MainActivity extends AppCompatActivity {
                     sb.append(",");
                 }
             }
+            if (featureCount > 74) {
+                for (String name : SpectralFeatureExtractor.featureNames()) {
+                    sb.append(",").append(name);
+                }
+            }
             return sb.toString();
         }
     }
 
     // 触摸会话类
-    class TouchSession {
+    static class TouchSession {
         private List<AllDataModel> dataList = new ArrayList<>();
 
         public void addData(AllDataModel data) {
@@ -262,140 +325,20 @@ public class MainActivity extends AppCompatActivity {
         public long getEndTime() {
             return dataList.get(dataList.size() - 1).getTime();
         }
-    }
-
-    // OCSVM模型类（新增填充均值参数）
-    class OCSVMModel {
-        private float[][] supportVectors;
-        private float[] dualCoef;
-        private float intercept;
-        private float gamma;
-        private float[] scalerMean;
-        private float[] scalerStd;
-        private float[] imputerMean; // Python训练集的缺失值填充均值
-
-        public void loadParams(android.content.res.AssetManager assetManager) throws Exception {
-            InputStream is = assetManager.open("ocsvm_params.json");
-            byte[] buffer = new byte[is.available()];
-            is.read(buffer);
-            is.close();
-            String jsonStr = new String(buffer, StandardCharsets.UTF_8);
-            JSONObject json = new JSONObject(jsonStr);
-
-            // 加载支持向量
-            JSONArray svJson = json.getJSONArray("support_vectors");
-            supportVectors = new float[svJson.length()][];
-            for (int i = 0; i < svJson.length(); i++) {
-                JSONArray vecJson = svJson.getJSONArray(i);
-                if (vecJson.length() != 74) {
-                    throw new Exception("支持向量维度错误：预期74，实际" + vecJson.length());
-                }
-                supportVectors[i] = new float[vecJson.length()];
-                for (int j = 0; j < vecJson.length(); j++) {
-                    supportVectors[i][j] = (float) vecJson.getDouble(j);
-                }
-            }
-
-            // 加载对偶系数
-            JSONArray dcJson = json.getJSONArray("dual_coef").getJSONArray(0);
-            dualCoef = new float[dcJson.length()];
-            for (int i = 0; i < dcJson.length(); i++) {
-                dualCoef[i] = (float) dcJson.getDouble(i);
-            }
 
-            // 加载截距项和gamma
-            intercept = (float) json.getJSONArray("intercept").getDouble(0);
-            gamma = (float) json.getDouble("gamma");
-
-            // 加载标准化均值和标准差
-            // 从scaler_params.json中加载mean和var并计算std
-            InputStream scalerIs = assetManager.open("scaler_params.json");
-            byte[] scalerBuffer = new byte[scalerIs.available()];
-            scalerIs.read(scalerBuffer);
-            scalerIs.close();
-            String scalerJsonStr = new String(scalerBuffer, StandardCharsets.UTF_8);
-            JSONObject scalerJson = new JSONObject(scalerJsonStr);
-
-            JSONArray meanJson = scalerJson.getJSONArray("mean");
-            if (meanJson.length() != 74) {
-                throw new Exception("mean长度错误：预期74，实际" + meanJson.length());
-            }
-            scalerMean = new float[meanJson.length()];
-            for (int i = 0; i < meanJson.length(); i++) {
-                scalerMean[i] = (float) meanJson.getDouble(i);
-            }
-
-            // 直接从scaler_params.json中的scale获取std（标准差）
-            JSONArray stdJson = scalerJson.getJSONArray("scale");
-            // stdJson已通过scale获取，长度应与meanJson一致
-            if (stdJson.length() != 74) {
-                throw new Exception("std长度错误：预期74，实际" + stdJson.length());
-            }
-            scalerStd = new float[stdJson.length()];
-            for (int i = 0; i < stdJson.length(); i++) {
-                scalerStd[i] = (float) stdJson.getDouble(i);
-            }
-            // 加载缺失值填充均值（新增）
-            // 从scaler_params.json中加载imputer_mean
-            JSONArray imputerMeanJson = scalerJson.getJSONArray("mean");
-            if (imputerMeanJson.length() != 74) {
-                throw new Exception("imputer_mean长度错误：预期74，实际" + imputerMeanJson.length());
-            }
-            imputerMean = new float[imputerMeanJson.length()];
-            for (int i = 0; i < imputerMeanJson.length(); i++) {
-                imputerMean[i] = (float) imputerMeanJson.getDouble(i);
-            }
+        public int getActionId() {
+            return dataList.get(0).actionId;
         }
 
-        public float infer(float[] features) {
-            if (features.length != 74) {
-                throw new IllegalArgumentException("特征维度错误：预期74，实际" + features.length);
-            }
-
-            // 特征已经预处理过，无需再次标准化
-            double decisionScore = 0;
-            for (int i = 0; i < supportVectors.length; i++) {
-                double distSq = 0;
-                for (int j = 0; j < features.length; j++) {
-                    double diff = features[j] - supportVectors[i][j];
-                    distSq += diff * diff;
-                }
-                
-                // 添加调试信息：检查距离计算
-                if (i == 0) {
-                    android.util.Log.d("OCSVM_DEBUG", "第一个支持向量距离计算 - distSq: " + distSq + ", gamma: " + gamma);
-                }
-                
-                double k = Math.exp(-gamma * distSq);
-                
-                // 添加调试信息：检查核函数结果
-                if (i == 0) {
-                    android.util.Log.d("OCSVM_DEBUG", "第一个支持向量核函数结果 - k: " + k);
+        // 抬起时由getSlideDirection标注的滑动方向（左滑/右滑/上滑/下滑/无效滑动），未标注时返回null
+        public String getDirection() {
+            for (int i = dataList.size() - 1; i >= 0; i--) {
+                String direction = dataList.get(i).touchDirection;
+                if (direction != null && !"无".equals(direction)) {
+                    return direction;
                 }
-                
-                decisionScore += dualCoef[i] * k;
             }
-            decisionScore += intercept;
-            
-            // 添加调试信息
-            android.util.Log.d("OCSVM_DEBUG", "输入特征前5个值: " + 
-                features[0] + ", " + features[1] + ", " + features[2] + ", " + features[3] + ", " + features[4]);
-            android.util.Log.d("OCSVM_DEBUG", "决策分数: " + decisionScore + ", gamma: " + gamma + ", intercept: " + intercept);
-            
-            return (float) -decisionScore;
-        }
-
-        // 新增getter方法
-        public float[] getImputerMean() {
-            return imputerMean;
-        }
-
-        public float[] getScalerMean() {
-            return scalerMean;
-        }
-
-        public float[] getScalerStd() {
-            return scalerStd;
+            return null;
         }
     }
 
@@ -440,27 +383,111 @@ public class MainActivity extends AppCompatActivity {
         spinnerFrequency = findViewById(R.id.spinnerFrequency);
     }
 
+    // 模型在后台线程加载（JSON解析、派生近似模型、预热都可能较慢），首帧和UI交互不再等待模型
     private void initOCSVMModel() {
+        tvInferResult.append("⏳ OCSVM模型后台加载中...\n");
+        modelReadyFuture = CompletableFuture.supplyAsync(this::loadOCSVMModel, modelLoadExecutor);
+        modelReadyFuture.whenComplete((bundle, error) -> runOnUiThread(() -> onOCSVMModelLoaded(bundle, error)));
+    }
+
+    // 安装包最后一次安装/更新的时间，assets随之更新；取不到时返回0（不缓存JSON转换结果）
+    private long assetVersion() {
         try {
-            ocsvmModel = new OCSVMModel();
-            ocsvmModel.loadParams(getAssets());
-            if (ocsvmModel.supportVectors == null || ocsvmModel.dualCoef == null || ocsvmModel.imputerMean == null) {
+            return getPackageManager().getPackageInfo(getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w("OCSVM_LOAD", "读取安装包信息失败，不缓存模型转换结果：" + e.getMessage());
+            return 0;
+        }
+    }
+
+    // 在模型加载线程执行，界面输出统一经tvInferResult.post回到主线程
+    private OCSVMModelBundle loadOCSVMModel() {
+        try {
+            long loadStart = System.currentTimeMillis();
+            OCSVMModelBundle bundle = new OCSVMModelBundle(getAssets(), getFilesDir(), assetVersion(), SCORING_MODE);
+            OCSVMModel model = bundle.getGlobalModel();
+            float[] supportVectors = model.getSupportVectors();
+            if (supportVectors == null || model.getDualCoef() == null || model.getImputerMean() == null) {
                 throw new Exception("模型关键参数未初始化");
             }
-            tvInferResult.append("✅ OCSVM模型加载成功（含填充和标准化参数）\n");
+            StringBuilder info = new StringBuilder();
+            info.append("✅ OCSVM模型加载成功（含填充和标准化参数，耗时").append(System.currentTimeMillis() - loadStart).append("ms）\n");
             // 添加调试信息
-            tvInferResult.append("   支持向量数量: " + ocsvmModel.supportVectors.length + "\n");
-            tvInferResult.append("   gamma参数: " + ocsvmModel.gamma + "\n");
-            tvInferResult.append("   intercept参数: " + ocsvmModel.intercept + "\n");
-            if (ocsvmModel.supportVectors.length > 0) {
-                tvInferResult.append("   第一个支持向量前5个值: " + 
-                    ocsvmModel.supportVectors[0][0] + ", " + ocsvmModel.supportVectors[0][1] + ", " + ocsvmModel.supportVectors[0][2] + ", " + 
-                    ocsvmModel.supportVectors[0][3] + ", " + ocsvmModel.supportVectors[0][4] + "\n");
+            info.append("   支持向量数量: ").append(model.getSupportVectorCount()).append("\n");
+            info.append("   gamma参数: ").append(model.getGamma()).append("\n");
+            info.append("   intercept参数: ").append(model.getIntercept()).append("\n");
+            if (model.getProjectionType() != OCSVMModel.PROJECTION_NONE) {
+                int requiredCount = 0;
+                for (boolean required : model.getRequiredFeatures()) if (required) requiredCount++;
+                info.append("   降维投影: ").append(model.getRawDims()).append("维 → ").append(model.getDims())
+                        .append("维，需提取").append(requiredCount).append("个原始特征\n");
+            }
+            if (!model.hasFusedSensorRows()) {
+                Log.w("OCSVM_LOAD", "模型未声明在融合传感器行的数据上训练，传感器特征分布可能与当前采集不一致");
+                info.append("   ⚠️ 模型未声明按融合传感器行训练（旧版采集数据），传感器特征可能偏移，建议用当前版本采集的数据重新训练\n");
             }
+            if (model.getSupportVectorCount() > 0) {
+                info.append("   第一个支持向量前5个值: ")
+                        .append(supportVectors[0]).append(", ").append(supportVectors[1]).append(", ")
+                        .append(supportVectors[2]).append(", ").append(supportVectors[3]).append(", ")
+                        .append(supportVectors[4]).append("\n");
+            }
+            if (SCORING_MODE != OCSVMModel.ScoringMode.EXACT) {
+                OCSVMModel approxModel = model.withScoringMode(SCORING_MODE);
+                info.append("   打分方式: ").append(SCORING_MODE).append("\n");
+                info.append("   ").append(model.reportDrift(approxModel, ANOMALY_THRESHOLD, 200, 1L)).append("\n");
+                bundle.setGlobalModel(approxModel);
+            }
+            if (MODEL_WARM_UP) {
+                info.append("   模型预热耗时: ").append(bundle.warmUp(MODEL_WARM_UP_ROUNDS)).append("ms\n");
+            }
+            if (CALIBRATE_THRESHOLD) {
+                List<OCSVMModel> models = bundle.allModels();
+                ThresholdCalibrator calibrator = ThresholdCalibrator.load(
+                        new File(getFilesDir(), THRESHOLD_CALIBRATION_FILE), models, TARGET_FALSE_REJECT_RATE);
+                info.append("   阈值校准: ").append(models.size()).append("个模型共积累").append(calibrator.getSampleCount())
+                        .append("个本人会话分数，全局模型当前阈值")
+                        .append(String.format(Locale.ENGLISH, "%.4f", calibrator.threshold(bundle.getGlobalModel(), ANOMALY_THRESHOLD)))
+                        .append("\n");
+                thresholdCalibrator = calibrator;
+            }
+            String message = info.toString();
+            tvInferResult.post(() -> tvInferResult.append(message));
+            return bundle;
         } catch (Exception e) {
-            tvInferResult.append("❌ OCSVM模型加载失败：" + e.getMessage() + "\n");
+            tvInferResult.post(() -> tvInferResult.append("❌ OCSVM模型加载失败：" + e.getMessage() + "\n"));
             e.printStackTrace();
+            throw new CompletionException(e);
+        }
+    }
+
+    // 主线程：发布加载结果；加载期间点过「身份验证」的，此时自动开始
+    private void onOCSVMModelLoaded(OCSVMModelBundle bundle, Throwable error) {
+        if (isDestroyed()) {
+            return;
+        }
+        boolean startPending = pendingInferStart;
+        pendingInferStart = false;
+        if (error != null || bundle == null) {
             ocsvmModel = null;
+            modelBundle = null;
+            if (startPending) {
+                Toast.makeText(this, "OCSVM模型未加载，无法验证", Toast.LENGTH_SHORT).show();
+            }
+            return;
+        }
+        try {
+            modelBundle = bundle;
+            ocsvmModel = bundle.getGlobalModel();
+            requiredFeatures = ocsvmModel.getRequiredFeatures();
+        } catch (Exception e) {
+            // 全局模型已在加载线程中载入，这里不会再读文件
+            ocsvmModel = null;
+            modelBundle = null;
+            return;
+        }
+        if (startPending) {
+            start10sCollectAndInfer();
         }
     }
 
@@ -490,6 +517,13 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void start10sCollectAndInfer() {
+        if (modelReadyFuture != null && !modelReadyFuture.isDone()) {
+            if (!pendingInferStart) {
+                pendingInferStart = true;
+                Toast.makeText(this, "模型加载中，加载完成后自动开始验证", Toast.LENGTH_SHORT).show();
+            }
+            return;
+        }
         if (ocsvmModel == null) {
             Toast.makeText(this, "OCSVM模型未加载，无法验证", Toast.LENGTH_SHORT).show();
             return;
@@ -503,33 +537,51 @@ public class MainActivity extends AppCompatActivity {
         isInferring = true;
         dataLock.lock();
         try {
-            inferRawData.clear();
+            stopSampleConsumer();
+            sensorQueue.clear();
+            touchQueue.clear();
+            sensorDroppedBase = sensorQueue.getDroppedCount();
+            touchDroppedBase = touchQueue.getDroppedCount();
+            touchRawData.clear();
+            sensorRawData.clear();
+            Arrays.fill(latestSensorRow, 0f);
+            resetSampleTouchState();
+            sampleActionId = 0;
+            liveFeatures.clear();
             inferScores.clear();
             touchIntervals.clear();
             currentTouchStart = 0;
             currentTouchMaxLiftTime = 0;
             isCurrentTouchFinished = true;
             currentActionId = 0;
+            if (FILTER_TIME_T == 0) {
+                sessionPipeline.start(modelBundle, ocsvmModel, selectedHz);
+                liveFeatures.setListener((actionId, result) -> sessionPipeline.submit(actionId, result,
+                        Arrays.asList(touchRawData.view(), sensorRawData.view())));
+            } else {
+                liveFeatures.setListener(null);
+            }
+            startSampleConsumer();
         } finally {
             dataLock.unlock();
         }
 
         tvInferResult.setText("🔍 开始身份验证\n1. 10秒内请在游戏区完成完整滑动\n2. 必须包含滑动动作才会被统计为有效会话\n3. 时间到后自动分析...\n");
-        tvInferResult.append("💾 原始特征CSV路径：" + featureCsvPath + "\n");
-        tvInferResult.append("💾 处理后特征CSV路径：" + processedFeatureCsvPath + "\n");
+        if (SAVE_FEATURE_CSV) {
+            tvInferResult.append("💾 原始特征CSV路径：" + featureCsvPath + "\n");
+            tvInferResult.append("💾 处理后特征CSV路径：" + processedFeatureCsvPath + "\n");
+        }
         showCollectCountdown();
 
+        // 在传感器线程上重置，先于之后开始上报的读数执行
+        int resampleHz = selectedHz;
+        sampleMerger.resetWatermark();
+        sensorHandler.post(() -> sensorResampler.reset(resampleHz, sensorSource.has(SensorSource.ACCELEROMETER),
+                sensorSource.has(SensorSource.GYROSCOPE), sensorSource.has(SensorSource.MAGNETOMETER)));
+
         if (!isSensorRegistered) {
             try {
-                if (accelerometer != null) {
-                    sensorManager.registerListener(sensorListener, accelerometer, sensorDelay, sensorHandler);
-                }
-                if (gyroscope != null) {
-                    sensorManager.registerListener(sensorListener, gyroscope, sensorDelay, sensorHandler);
-                }
-                if (magnetometer != null) {
-                    sensorManager.registerListener(sensorListener, magnetometer, sensorDelay, sensorHandler);
-                }
+                sensorSource.start(selectedHz, sensorCallback);
                 isSensorRegistered = true;
                 tvInferResult.append("✅ 传感器已启动（" + selectedHz + "Hz）\n");
             } catch (Exception e) {
@@ -572,7 +624,7 @@ public class MainActivity extends AppCompatActivity {
         isInferring = false;
         if (isSensorRegistered) {
             try {
-                sensorManager.unregisterListener(sensorListener);
+                sensorSource.stop();
                 isSensorRegistered = false;
             } catch (Exception e) {
                 Log.e("SensorInferDebug", "[SENSOR_UNREG] 传感器注销失败：" + e.getMessage(), e);
@@ -581,30 +633,52 @@ public class MainActivity extends AppCompatActivity {
 
         tvInferResult.post(() -> tvInferResult.append("\n⏹️ 10秒收集结束，开始预处理数据...\n"));
 
-        List<AllDataModel> storedData = new ArrayList<>();
+        RawSampleBuffer.View storedTouchData;
+        RawSampleBuffer.View storedSensorData;
         List<long[]> storedIntervals = new ArrayList<>();
+        Map<Integer, LiveFeatureTracker.Result> liveResults;
         dataLock.lock();
         try {
-            storedData.addAll(inferRawData);
+            // 取完队列中剩余的事件后停止消费线程；快照之后缓冲区不再写入，直到下一次验证开始（同在主线程，归并完成之后）
+            drainSampleQueues(true);
+            stopSampleConsumer();
+            int dropped = sensorQueue.getDroppedCount() - sensorDroppedBase + touchQueue.getDroppedCount() - touchDroppedBase;
+            if (dropped > 0) {
+                tvInferResult.post(() -> tvInferResult.append("⚠️ 事件队列已满，丢弃" + dropped + "个事件\n"));
+            }
+            storedTouchData = touchRawData.view();
+            storedSensorData = sensorRawData.view();
             storedIntervals.addAll(touchIntervals);
-            tvInferResult.post(() -> tvInferResult.append("📊 已读取存储数据：" + storedData.size() + " 条，触摸动作：" + storedIntervals.size() + " 个\n"));
+            int overwritten = touchRawData.getOverwrittenCount() + sensorRawData.getOverwrittenCount();
+            if (overwritten > 0) {
+                tvInferResult.post(() -> tvInferResult.append("⚠️ 原始数据缓冲区已满，最早的" + overwritten + "条被覆盖\n"));
+            }
+            liveFeatures.flush();
+            liveResults = liveFeatures.drainResults();
+            tvInferResult.post(() -> tvInferResult.append("📊 已读取存储数据：" + (storedTouchData.size() + storedSensorData.size())
+                    + " 条（触摸" + storedTouchData.size() + "，传感器" + storedSensorData.size() + "），触摸动作：" + storedIntervals.size() + " 个\n"));
         } finally {
             dataLock.unlock();
         }
 
-        int dataCountBeforeDedup = storedData.size();
-        List<AllDataModel> deduplicatedData = deduplicateRawData(storedData);
-        tvInferResult.post(() -> tvInferResult.append("✅ 原始数据去重完成：去重前" + dataCountBeforeDedup + "条，去重后" + deduplicatedData.size() + "条\n"));
+        // 一次归并完成排序、去重和按动作ID校正区间
+        List<RawSampleBuffer.View> sources = new ArrayList<>();
+        sources.add(storedTouchData);
+        sources.add(storedSensorData);
+        RawDataMerger.Result merged = RawDataMerger.merge(sources);
+        List<AllDataModel> deduplicatedData = merged.samples;
+        tvInferResult.post(() -> tvInferResult.append("✅ 原始数据归并去重完成：去重" + merged.duplicateCount + "条，剩余" + deduplicatedData.size() + "条\n"));
 
         saveRawDataToCsv(deduplicatedData);
 
-        List<long[]> correctedIntervals = correctTouchIntervals(deduplicatedData);
+        List<long[]> correctedIntervals = merged.intervals;
         tvInferResult.post(() -> tvInferResult.append("✅ 触摸区间校正完成：原始" + storedIntervals.size() + "个，校正后" + correctedIntervals.size() + "个\n"));
 
         List<TouchSession> touchSessions = preprocessInferData(deduplicatedData, correctedIntervals);
         tvInferResult.post(() -> tvInferResult.append("✅ 提取到 " + touchSessions.size() + " 个有效触摸会话\n"));
 
         if (touchSessions.size() < REQUIRED_TOUCH_COUNT) {
+            sessionPipeline.cancel();
             tvInferResult.post(() -> {
                 tvInferResult.append("❌ 有效滑动不足（需" + REQUIRED_TOUCH_COUNT + "个，实际" + touchSessions.size() + "个）\n");
                 tvInferResult.append("请重新点击「身份验证」\n");
@@ -618,16 +692,55 @@ public class MainActivity extends AppCompatActivity {
         new Thread(() -> {
             try {
                 List<FeatureModel> allFeatureModels = new ArrayList<>();
-
-                // 1. 提取特征并保存到列表
+                List<String> featureDirections = new ArrayList<>(); // 与allFeatureModels一一对应，用于选择分方向模型
+
+                // 传感器特征按触摸区间前后各扩展FILTER_TIME_T毫秒的窗口计算（与Python训练脚本的t一致），
+                // 此时会话内只提取触摸特征，传感器特征由时间索引按窗口查询
+                // 模型声明频域特征时，74维之后追加同一窗口上的54个频域特征（同样需要时间索引）
+                boolean[] required = requiredFeatures;
+                int featureCount = ocsvmModel.getRawDims();
+                boolean spectral = ocsvmModel.hasSpectralFeatures();
+                SensorTimeIndex sensorIndex = FILTER_TIME_T > 0 || spectral ? SensorTimeIndex.build(deduplicatedData) : null;
+                boolean[] sessionRequired = FILTER_TIME_T > 0
+                        ? TouchFeatureExtractor.withoutSensorFeatures(required) : required;
+
+                // 1. 提取特征并保存到列表（优先使用采集时流水线已打好分的结果，其次是已在线算好的特征，采样数对不上时重新提取）
+                List<float[]> processedFeaturesList = new ArrayList<>(useSessionCount); // 未经流水线处理的为null
+                List<Float> sessionScores = new ArrayList<>(useSessionCount);         // 未经流水线打分的为NaN
+                int pipelinedCount = 0;
+                int liveCount = 0;
                 for (int i = 0; i < useSessionCount; i++) {
                     TouchSession session = touchSessions.get(i);
-                    float[] features = extractTouchFeatures(session);
+                    SessionScoringPipeline.Scored scored = sessionPipeline.take(session.getActionId());
+                    if (scored != null && scored.sampleCount != session.getDataList().size()) {
+                        scored = null;
+                    }
+                    LiveFeatureTracker.Result live = liveResults.get(session.getActionId());
+                    float[] features;
+                    if (scored != null) {
+                        features = scored.features;
+                        pipelinedCount++;
+                    } else if (live != null && live.sampleCount == session.getDataList().size()) {
+                        features = live.features.length == featureCount
+                                ? live.features : Arrays.copyOf(live.features, featureCount);
+                        liveCount++;
+                    } else {
+                        features = extractTouchFeatures(session, sessionRequired, featureCount);
+                    }
                     if (features == null) {
                         final int idx = i + 1;
                         tvInferResult.post(() -> tvInferResult.append("⚠️ 第" + idx + "个触摸动作特征提取失败\n"));
                         continue;
                     }
+                    if (scored == null && FILTER_TIME_T > 0) {
+                        sensorIndex.writeAxisFeatures(session.getStartTime() - FILTER_TIME_T,
+                                session.getEndTime() + FILTER_TIME_T, required, features);
+                    }
+                    if (scored == null && spectral) {
+                        spectralExtractor.compute(sensorIndex, session.getStartTime() - FILTER_TIME_T,
+                                session.getEndTime() + FILTER_TIME_T, selectedHz, features,
+                                TouchFeatureExtractor.FEATURE_COUNT);
+                    }
 
                     int sampleCount = session.getDataList().size();
                     long startTime = session.getStartTime();
@@ -643,65 +756,89 @@ public class MainActivity extends AppCompatActivity {
                             features
                     );
                     allFeatureModels.add(featureModel);
+                    featureDirections.add(session.getDirection());
+                    processedFeaturesList.add(scored != null ? scored.processed : null);
+                    sessionScores.add(scored != null ? scored.score : Float.NaN);
+                    if (scored != null && scored.imputedCount > 0) {
+                        final int idx = allFeatureModels.size();
+                        final int imputedCount = scored.imputedCount;
+                        tvInferResult.post(() -> tvInferResult.append(
+                                "⚠️ 第" + idx + "个会话有" + imputedCount + "个特征缺失，已用训练集均值填充\n"));
+                    }
                 }
+                final int finalPipelinedCount = pipelinedCount;
+                final int finalLiveCount = liveCount;
+                tvInferResult.post(() -> tvInferResult.append("⚡ 采集时已完成打分的会话：" + finalPipelinedCount + "/" + useSessionCount
+                        + "，已实时算出特征的会话：" + finalLiveCount + "/" + useSessionCount + "\n"));
 
-                // 2. 同步保存原始特征到CSV
-                boolean saveSuccess = saveFeatureDataToCsvSync(allFeatureModels);
-                if (!saveSuccess) {
-                    tvInferResult.post(() -> tvInferResult.append("❌ 特征保存失败，终止推理\n"));
+                if (allFeatureModels.isEmpty()) {
+                    tvInferResult.post(() -> tvInferResult.append("❌ 无有效特征，终止推理\n"));
                     return;
                 }
 
-                // 3. 处理特征CSV（填充+标准化）
-                // 恢复为带参数的调用，传入模型中的训练集参数
-                boolean processSuccess = processFeatureCsv(
-                        featureCsvPath,
-                        processedFeatureCsvPath,
-                        ocsvmModel.getImputerMean(),  // 模型中的填充均值（训练集参数）
-                        ocsvmModel.getScalerMean(),   // 模型中的标准化均值（训练集参数）
-                        ocsvmModel.getScalerStd()     // 模型中的标准化标准差（训练集参数）
-                );
-                if (!processSuccess) {
-                    tvInferResult.post(() -> tvInferResult.append("❌ 特征预处理失败，终止推理\n"));
-                    return;
+                // 2. 在内存中用模型的训练集参数做填充+标准化（流水线已处理的会话跳过）
+                FeatureTransformer transformer = ocsvmModel.getFeatureTransformer();
+                for (int i = 0; i < allFeatureModels.size(); i++) {
+                    float[] rawFeatures = allFeatureModels.get(i).features;
+                    float[] processed = processedFeaturesList.get(i);
+                    if (processed == null) {
+                        processed = new float[rawFeatures.length];
+                        int imputedCount = transformer.transform(rawFeatures, processed);
+                        if (imputedCount > 0) {
+                            final int idx = i + 1;
+                            tvInferResult.post(() -> tvInferResult.append(
+                                    "⚠️ 第" + idx + "个会话有" + imputedCount + "个特征缺失，已用训练集均值填充\n"));
+                        }
+                        processedFeaturesList.set(i, processed);
+                    }
+                    if (i == 0) {
+                        logPreprocessDetails(rawFeatures, processed, ocsvmModel);
+                    }
                 }
 
-                // 4. 从处理后的CSV读取特征
-                List<float[]> csvFeaturesList = readFeaturesFromCsv(processedFeatureCsvPath);
-                if (csvFeaturesList.isEmpty()) {
-                    tvInferResult.post(() -> tvInferResult.append("❌ 未从处理后的CSV读取到有效特征，终止推理\n"));
-                    return;
+                // 3. 原始/处理后特征CSV仅作为旁路输出，在后台写入，不阻塞判定
+                if (SAVE_FEATURE_CSV) {
+                    saveFeatureCsvAsync(allFeatureModels, processedFeaturesList, featureCsvPath, processedFeatureCsvPath,
+                            ocsvmModel.getScalerMean(), ocsvmModel.getScalerStd());
                 }
 
-                // 5. 用处理后的特征进行推理
-                for (int i = 0; i < csvFeaturesList.size(); i++) {
-                    float[] featuresFromCsv = csvFeaturesList.get(i);
+                // 4. 用处理后的特征进行推理（按滑动方向选择模型，流水线未打分的会话每个模型批量打分一次）
+                float[][] featuresBatch = processedFeaturesList.toArray(new float[0][]);
+                float[] anomalyScores = scoreRemaining(featuresBatch, featureDirections, sessionScores);
+                for (int i = 0; i < featuresBatch.length; i++) {
+                    float[] processedFeatures = featuresBatch[i];
                     
                     // 添加调试信息：显示部分特征值
                     StringBuilder debugInfo = new StringBuilder();
                     debugInfo.append("第").append(i+1).append("个样本特征值：");
-                    for (int f = 0; f < Math.min(5, featuresFromCsv.length); f++) {
-                        debugInfo.append(String.format("f%d=%.4f, ", f, featuresFromCsv[f]));
+                    for (int f = 0; f < Math.min(5, processedFeatures.length); f++) {
+                        debugInfo.append(String.format("f%d=%.4f, ", f, processedFeatures[f]));
                     }
                     debugInfo.append("...\n");
                     tvInferResult.post(() -> tvInferResult.append(debugInfo.toString()));
                     
-                    float anomalyScore = ocsvmModel.infer(featuresFromCsv);
+                    float anomalyScore = anomalyScores[i];
                     inferScores.add(anomalyScore);
 
                     final int idx = i + 1;
                     final float score = anomalyScore;
                     tvInferResult.post(() -> tvInferResult.append(
-                            "第" + idx + "次分析（处理后CSV特征）：异常分数=" + String.format("%.4f", score) + "\n"
+                            "第" + idx + "次分析（处理后特征）：异常分数=" + String.format("%.4f", score) + "\n"
                     ));
                 }
 
-                // 6. 判定结果
+                // 5. 判定结果：各会话分数与打分模型的阈值比较（该模型有校准数据时使用该用户的校准阈值）
+                ThresholdCalibrator calibrator = thresholdCalibrator;
+                OCSVMModel[] scoringModels = new OCSVMModel[anomalyScores.length];
+                float[] anomalyThresholds = new float[anomalyScores.length];
                 int normalCount = 0;
-                for (float score : inferScores) {
-                    if (score < ANOMALY_THRESHOLD) normalCount++;
+                for (int i = 0; i < anomalyScores.length; i++) {
+                    scoringModels[i] = modelBundle.modelFor(featureDirections.get(i));
+                    anomalyThresholds[i] = calibrator != null
+                            ? calibrator.threshold(scoringModels[i], ANOMALY_THRESHOLD) : ANOMALY_THRESHOLD;
+                    if (anomalyScores[i] < anomalyThresholds[i]) normalCount++;
                 }
-                boolean isSelf = normalCount > csvFeaturesList.size() / 2;
+                boolean isSelf = normalCount > processedFeaturesList.size() / 2;
 
                 final int finalNormalCount = normalCount;
                 tvInferResult.post(() -> {
@@ -710,14 +847,28 @@ public class MainActivity extends AppCompatActivity {
                     tvInferResult.append("   异常分数列表：" + inferScores.stream()
                             .map(s -> String.format("%.4f", s))
                             .collect(Collectors.joining(", ")) + "\n");
-                    tvInferResult.append("   正常会话数：" + finalNormalCount + " | 异常会话数：" + (csvFeaturesList.size() - finalNormalCount) + "\n");
-                    tvInferResult.append("   判定阈值：" + (csvFeaturesList.size() / 2.0) + "\n");
-                    tvInferResult.append("   正常判断次数：" + finalNormalCount + "/" + csvFeaturesList.size() + "\n");
+                    tvInferResult.append("   正常会话数：" + finalNormalCount + " | 异常会话数：" + (processedFeaturesList.size() - finalNormalCount) + "\n");
+                    StringBuilder thresholdText = new StringBuilder();
+                    for (int i = 0; i < anomalyThresholds.length; i++) {
+                        if (i > 0) thresholdText.append(", ");
+                        thresholdText.append(String.format("%.4f", anomalyThresholds[i]));
+                    }
+                    tvInferResult.append("   异常分数阈值：" + thresholdText + "\n");
+                    tvInferResult.append("   判定阈值：" + (processedFeaturesList.size() / 2.0) + "\n");
+                    tvInferResult.append("   正常判断次数：" + finalNormalCount + "/" + processedFeaturesList.size() + "\n");
                     tvInferResult.append("   最终结论：" + (isSelf ? "✅ 判定为本人" : "❌ 判定为非本人") + "\n");
-                    tvInferResult.append("💾 原始特征CSV：" + featureCsvPath + "\n");
-                    tvInferResult.append("💾 处理后特征CSV：" + processedFeatureCsvPath + "\n");
                 });
 
+                // 6. 判定为本人时把本次低于固定阈值的会话分数计入该用户的分数分布（见ThresholdCalibrator）
+                if (isSelf && calibrator != null) {
+                    calibrator.record(scoringModels, anomalyScores, ANOMALY_THRESHOLD);
+                    try {
+                        calibrator.save();
+                    } catch (IOException e) {
+                        Log.w("ThresholdCalibrator", "阈值校准数据保存失败：" + e.getMessage());
+                    }
+                }
+
             } catch (Exception e) {
                 e.printStackTrace();
                 tvInferResult.post(() -> {
@@ -727,241 +878,142 @@ public class MainActivity extends AppCompatActivity {
         }).start();
     }
 
-    // 新增：特征预处理（均值填充+标准化）
-    // 修改后的特征预处理方法：用JSON中的训练集参数（填充+标准化）
-    // 恢复参数：接收模型中的训练集参数（imputerMean、scalerMean、scalerStd）
-    private boolean processFeatureCsv(
-            String rawFeatureCsvPath,
-            String processedCsvPath,
-            float[] imputerMean,    // 模型中的填充均值（训练集参数）
-            float[] scalerMean,     // 模型中的标准化均值（训练集参数）
-            float[] scalerStd       // 模型中的标准化标准差（训练集参数）
-    ) {
-        try {
-            File rawCsvFile = new File(rawFeatureCsvPath);
-            if (!rawCsvFile.exists()) {
-                tvInferResult.post(() -> tvInferResult.append("❌ 原始特征CSV不存在：" + rawFeatureCsvPath + "\n"));
-                return false;
+    // 对sessionScores中仍为NaN（未经流水线打分）的会话批量打分，返回全部会话的分数
+    private float[] scoreRemaining(float[][] featuresBatch, List<String> featureDirections,
+                                   List<Float> sessionScores) throws Exception {
+        List<Integer> remaining = new ArrayList<>();
+        float[] anomalyScores = new float[featuresBatch.length];
+        for (int i = 0; i < featuresBatch.length; i++) {
+            anomalyScores[i] = sessionScores.get(i);
+            if (Float.isNaN(anomalyScores[i])) {
+                remaining.add(i);
             }
+        }
+        if (remaining.isEmpty()) {
+            return anomalyScores;
+        }
+        float[][] batch = new float[remaining.size()][];
+        String[] directions = new String[remaining.size()];
+        for (int k = 0; k < batch.length; k++) {
+            batch[k] = featuresBatch[remaining.get(k)];
+            directions[k] = featureDirections.get(remaining.get(k));
+        }
+        float[] batchScores = modelBundle.inferBatch(batch, directions);
+        for (int k = 0; k < batch.length; k++) {
+            anomalyScores[remaining.get(k)] = batchScores[k];
+        }
+        return anomalyScores;
+    }
 
-            List<String> lines = Files.readAllLines(rawCsvFile.toPath(), StandardCharsets.UTF_8);
-            if (lines.size() < 2) {
-                tvInferResult.post(() -> tvInferResult.append("❌ 原始特征CSV数据为空：" + rawFeatureCsvPath + "\n"));
-                return false;
-            }
-
-            List<String> processedLines = new ArrayList<>();
-
-            // 生成表头（每个特征：标准化值 + 训练集均值 + 训练集标准差）
-            StringBuilder headerSb = new StringBuilder();
-            headerSb.append("会话ID,触摸会话ID,提取时间戳,采样数,采样起始时间(毫秒),采样结束时间(毫秒),");
-            for (int j = 0; j < 74; j++) {
-                String[] featureNames = {
-                        "起始x", "起始y", "结束x", "结束y", "位移长度", "移动长度", "位移/移动比值",
-                        "角度1_均值", "角度1_最大值", "角度1_最小值", "角度1_方差",
-                        "角度2_均值", "角度2_最大值", "角度2_最小值", "角度2_方差",
-                        "持续时间（毫秒）",
-                        "速度_均值", "速度_最大值", "速度_最小值", "速度_方差",
-                        "压力_均值", "压力_最大值", "压力_最小值", "压力_方差",
-                        "面积_均值", "面积_最大值", "面积_最小值", "面积_方差",
-                        "移动角度（弧度）",
-                        "加速度 x_均值", "加速度 x_最小值", "加速度 x_最大值", "加速度 x_方差", "加速度 x_复杂度",
-                        "加速度 y_均值", "加速度 y_最小值", "加速度 y_最大值", "加速度 y_方差", "加速度 y_复杂度",
-                        "加速度 z_均值", "加速度 z_最小值", "加速度 z_最大值", "加速度 z_方差", "加速度 z_复杂度",
-                        "角速度 x_均值", "角速度 x_最小值", "角速度 x_最大值", "角速度 x_方差", "角速度 x_复杂度",
-                        "角速度 y_均值", "角速度 y_最小值", "角速度 y_最大值", "角速度 y_方差", "角速度 y_复杂度",
-                        "角速度 z_均值", "角速度 z_最小值", "角速度 z_最大值", "角速度 z_方差", "角速度 z_复杂度",
-                        "磁力计 x_均值", "磁力计 x_最小值", "磁力计 x_最大值", "磁力计 x_方差", "磁力计 x_复杂度",
-                        "磁力计 y_均值", "磁力计 y_最小值", "磁力计 y_最大值", "磁力计 y_方差", "磁力计 y_复杂度",
-                        "磁力计 z_均值", "磁力计 z_最小值", "磁力计 z_最大值", "磁力计 z_方差", "磁力计 z_复杂度"
-                };
-                headerSb.append(featureNames[j]).append("_标准化,");
-                headerSb.append(featureNames[j]).append("_训练集均值,");
-                headerSb.append(featureNames[j]).append("_训练集标准差");
-                if (j < 73) {
-                    headerSb.append(",");
-                }
-            }
-            processedLines.add(headerSb.toString());
-
-            // 遍历每一行数据，用模型参数处理
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split(",");
-                if (parts.length != 6 + 74) {
-                    final int lineNum = i;
-                    tvInferResult.post(() -> tvInferResult.append("⚠️ 特征CSV格式错误，行" + lineNum + "列数=" + parts.length + "，跳过\n"));
-                    continue;
-                }
-
-                // 拼接前6个元数据列
-                StringBuilder sb = new StringBuilder();
-                for (int j = 0; j < 6; j++) {
-                    sb.append(parts[j]).append(",");
-                }
-
-                // 处理74维特征（用模型中的训练集参数）
-                for (int j = 0; j < 74; j++) {
-                    int currentJ = j; // 解决lambda变量问题
-                    float featureVal;
-
-                    // 缺失值处理：用模型中的训练集均值填充
-                    int featureIndex = 6 + j; // 定位到特征值的索引
-                    if (parts[featureIndex] == null || parts[featureIndex].isEmpty() || parts[featureIndex].equalsIgnoreCase("NaN")) {
-                        featureVal = imputerMean[j];
-                        tvInferResult.post(() -> tvInferResult.append(
-                                "⚠️ 特征" + (currentJ + 1) + "缺失，用训练集均值" + String.format("%.4f", imputerMean[currentJ]) + "填充\n"
-                        ));
-                    } else {
-                        try {
-                            featureVal = Float.parseFloat(parts[featureIndex]);
-                        } catch (NumberFormatException e) {
-                            featureVal = imputerMean[j];
-                            tvInferResult.post(() -> tvInferResult.append(
-                                    "⚠️ 特征" + (currentJ + 1) + "值无效，用训练集均值填充\n"
-                            ));
-                        }
-                    }
-
-                    // 标准化：用模型中的训练集均值和标准差
-                    float scaledVal;
-                    if (scalerStd[j] == 0) {
-                        scaledVal = 0f;
-                    } else {
-                        scaledVal = (featureVal - scalerMean[j]) / scalerStd[j];
-                    }
-
-                    // 追加：标准化值 + 训练集均值 + 训练集标准差
-                    sb.append(String.format(Locale.ENGLISH, "%.4f", scaledVal)).append(",");
-                    sb.append(String.format(Locale.ENGLISH, "%.4f", scalerMean[j])).append(",");
-                    sb.append(String.format(Locale.ENGLISH, "%.4f", scalerStd[j]));
-
-                    // 添加调试信息
-                    if (i == 1 && j < 5) { // 只输出第一行前5个特征的处理信息
-                        final int index = j; // 创建effectively final变量
-                        final float originalVal = featureVal;
-                        final float scaledValue = scaledVal;
-                        tvInferResult.post(() -> tvInferResult.append(
-                            "特征" + index + "处理: 原始=" + String.format("%.4f", originalVal) + 
-                            ", 标准化=" + String.format("%.4f", scaledValue) + 
-                            ", 均值=" + String.format("%.4f", scalerMean[index]) + 
-                            ", 标准差=" + String.format("%.4f", scalerStd[index]) + "\n"));
-                    }
-
-                    if (j < 73) {
-                        sb.append(",");
-                    }
-                }
+    // 调试信息：输出第一条特征前5维的预处理情况（缺失值显示为NaN）
+    private void logPreprocessDetails(float[] rawFeatures, float[] processed, OCSVMModel model) {
+        float[] scalerMean = model.getScalerMean();
+        float[] scalerStd = model.getScalerStd();
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < Math.min(5, processed.length); j++) {
+            sb.append("特征").append(j).append("处理: 原始=").append(String.format("%.4f", rawFeatures[j]))
+                    .append(", 标准化=").append(String.format("%.4f", processed[j]))
+                    .append(", 均值=").append(String.format("%.4f", scalerMean[j]))
+                    .append(", 标准差=").append(String.format("%.4f", scalerStd[j])).append("\n");
+        }
+        String details = sb.toString();
+        tvInferResult.post(() -> tvInferResult.append(details));
+    }
 
-                processedLines.add(sb.toString());
+    // 后台写入原始特征CSV和处理后特征CSV（路径由调用方传入，避免下一次验证改写路径字段）
+    private void saveFeatureCsvAsync(List<FeatureModel> featureModels, List<float[]> processedFeatures,
+                                     String rawCsvPath, String processedCsvPath,
+                                     float[] scalerMean, float[] scalerStd) {
+        featureCsvExecutor.execute(() -> {
+            if (saveFeatureDataToCsvSync(featureModels, rawCsvPath)) {
+                saveProcessedFeatureCsv(featureModels, processedFeatures, processedCsvPath, scalerMean, scalerStd);
             }
+        });
+    }
 
-            // 保存处理后的CSV
+    // 保存处理后的特征CSV：每个特征3列（标准化值 + 训练集均值 + 训练集标准差）
+    private boolean saveProcessedFeatureCsv(List<FeatureModel> featureModels, List<float[]> processedFeatures,
+                                            String processedCsvPath, float[] scalerMean, float[] scalerStd) {
+        try {
             File processedCsvFile = new File(processedCsvPath);
             if (!processedCsvFile.getParentFile().exists()) {
                 processedCsvFile.getParentFile().mkdirs();
             }
 
+            String[] featureNames = {
+                    "起始x", "起始y", "结束x", "结束y", "位移长度", "移动长度", "位移/移动比值",
+                    "角度1_均值", "角度1_最大值", "角度1_最小值", "角度1_方差",
+                    "角度2_均值", "角度2_最大值", "角度2_最小值", "角度2_方差",
+                    "持续时间（毫秒）",
+                    "速度_均值", "速度_最大值", "速度_最小值", "速度_方差",
+                    "压力_均值", "压力_最大值", "压力_最小值", "压力_方差",
+                    "面积_均值", "面积_最大值", "面积_最小值", "面积_方差",
+                    "移动角度（弧度）",
+                    "加速度 x_均值", "加速度 x_最小值", "加速度 x_最大值", "加速度 x_方差", "加速度 x_复杂度",
+                    "加速度 y_均值", "加速度 y_最小值", "加速度 y_最大值", "加速度 y_方差", "加速度 y_复杂度",
+                    "加速度 z_均值", "加速度 z_最小值", "加速度 z_最大值", "加速度 z_方差", "加速度 z_复杂度",
+                    "角速度 x_均值", "角速度 x_最小值", "角速度 x_最大值", "角速度 x_方差", "角速度 x_复杂度",
+                    "角速度 y_均值", "角速度 y_最小值", "角速度 y_最大值", "角速度 y_方差", "角速度 y_复杂度",
+                    "角速度 z_均值", "角速度 z_最小值", "角速度 z_最大值", "角速度 z_方差", "角速度 z_复杂度",
+                    "磁力计 x_均值", "磁力计 x_最小值", "磁力计 x_最大值", "磁力计 x_方差", "磁力计 x_复杂度",
+                    "磁力计 y_均值", "磁力计 y_最小值", "磁力计 y_最大值", "磁力计 y_方差", "磁力计 y_复杂度",
+                    "磁力计 z_均值", "磁力计 z_最小值", "磁力计 z_最大值", "磁力计 z_方差", "磁力计 z_复杂度"
+            };
+            int featureCount = scalerMean.length;
+            if (featureCount > featureNames.length) {
+                String[] spectralNames = SpectralFeatureExtractor.featureNames();
+                featureNames = Arrays.copyOf(featureNames, featureCount);
+                System.arraycopy(spectralNames, 0, featureNames, TouchFeatureExtractor.FEATURE_COUNT, spectralNames.length);
+            }
+
+            StringBuilder sb = new StringBuilder();
             try (BufferedWriter writer = new BufferedWriter(
                     new OutputStreamWriter(new FileOutputStream(processedCsvFile), StandardCharsets.UTF_8))) {
                 writer.write('\ufeff'); // UTF-8 BOM
-                for (String processedLine : processedLines) {
-                    writer.write(processedLine + "\n");
+
+                // 生成表头
+                sb.append("会话ID,触摸会话ID,提取时间戳,采样数,采样起始时间(毫秒),采样结束时间(毫秒),");
+                for (int j = 0; j < featureCount; j++) {
+                    sb.append(featureNames[j]).append("_标准化,");
+                    sb.append(featureNames[j]).append("_训练集均值,");
+                    sb.append(featureNames[j]).append("_训练集标准差");
+                    if (j < featureCount - 1) {
+                        sb.append(",");
+                    }
+                }
+                writer.write(sb.append("\n").toString());
+
+                for (int i = 0; i < featureModels.size(); i++) {
+                    FeatureModel model = featureModels.get(i);
+                    float[] scaled = processedFeatures.get(i);
+                    sb.setLength(0);
+                    sb.append(model.sessionId).append(",");
+                    sb.append(model.touchSessionId).append(",");
+                    sb.append(model.collectTime).append(",");
+                    sb.append(model.sampleCount).append(",");
+                    sb.append(model.startTime).append(",");
+                    sb.append(model.endTime).append(",");
+                    for (int j = 0; j < featureCount; j++) {
+                        sb.append(String.format(Locale.ENGLISH, "%.4f", scaled[j])).append(",");
+                        sb.append(String.format(Locale.ENGLISH, "%.4f", scalerMean[j])).append(",");
+                        sb.append(String.format(Locale.ENGLISH, "%.4f", scalerStd[j]));
+                        if (j < featureCount - 1) {
+                            sb.append(",");
+                        }
+                    }
+                    writer.write(sb.append("\n").toString());
                 }
             }
 
-            tvInferResult.post(() -> tvInferResult.append("✅ 特征预处理完成（用训练集参数）！路径：" + processedCsvPath + "\n"));
+            tvInferResult.post(() -> tvInferResult.append("✅ 处理后特征已保存到：" + processedCsvPath + "\n"));
             return true;
-
         } catch (IOException e) {
             e.printStackTrace();
-            tvInferResult.post(() -> tvInferResult.append("❌ 处理特征CSV失败：" + e.getMessage() + "\n"));
+            tvInferResult.post(() -> tvInferResult.append("❌ 保存处理后特征CSV失败：" + e.getMessage() + "\n"));
             return false;
         }
     }
 
-    private List<long[]> correctTouchIntervals(List<AllDataModel> deduplicatedData) {
-        List<long[]> correctedIntervals = new ArrayList<>();
-        if (deduplicatedData.isEmpty()) return correctedIntervals;
-
-        Set<Integer> actionIds = new HashSet<>();
-        for (AllDataModel data : deduplicatedData) {
-            actionIds.add(data.actionId);
-        }
-
-        for (int actionId : actionIds) {
-            if (actionId == 0) continue;
-
-            List<AllDataModel> actionData = new ArrayList<>();
-            for (AllDataModel data : deduplicatedData) {
-                if (data.actionId == actionId) {
-                    actionData.add(data);
-                }
-            }
-            if (actionData.isEmpty()) continue;
-
-            Collections.sort(actionData, (a, b) -> Long.compare(a.time, b.time));
-
-            long tstart = 0;
-            for (AllDataModel data : actionData) {
-                if ("按下".equals(data.touchType)) {
-                    tstart = data.time;
-                    break;
-                }
-            }
-            if (tstart == 0) continue;
-
-            long tend = 0;
-            for (int i = actionData.size() - 1; i >= 0; i--) {
-                AllDataModel data = actionData.get(i);
-                if ("抬起".equals(data.touchType)) {
-                    tend = data.time;
-                    break;
-                }
-            }
-            if (tend == 0) continue;
-
-            correctedIntervals.add(new long[]{tstart, tend});
-            Log.d("IntervalFix", "动作ID=" + actionId + " 校正区间：tstart=" + tstart + ", tend=" + tend);
-        }
-
-        Collections.sort(correctedIntervals, (a, b) -> Long.compare(a[0], b[0]));
-        return correctedIntervals;
-    }
-
-    private List<AllDataModel> deduplicateRawData(List<AllDataModel> rawData) {
-        if (rawData == null || rawData.size() < 2) {
-            if (rawData != null && rawData.size() == 1) {
-                Collections.sort(rawData, (a, b) -> Long.compare(a.time, b.time));
-            }
-            return rawData;
-        }
-
-        List<AllDataModel> deduplicatedData = new ArrayList<>();
-        deduplicatedData.add(rawData.get(0));
-
-        for (int i = 1; i < rawData.size(); i++) {
-            AllDataModel prev = deduplicatedData.get(deduplicatedData.size() - 1);
-            AllDataModel curr = rawData.get(i);
-
-            boolean sameTime = curr.time == prev.time;
-            boolean xDiffSmall = Math.abs(curr.x - prev.x) < 0.1f;
-            boolean yDiffSmall = Math.abs(curr.y - prev.y) < 0.1f;
-
-            if (!(sameTime && xDiffSmall && yDiffSmall)) {
-                deduplicatedData.add(curr);
-            } else {
-                Log.d("DedupDebug", "去重一条重复数据：时间戳=" + curr.time);
-            }
-        }
-
-        Collections.sort(deduplicatedData, (a, b) -> Long.compare(a.time, b.time));
-        Log.d("SortDebug", "数据排序完成：共" + deduplicatedData.size() + "条");
-        return deduplicatedData;
-    }
-
     // 同步保存原始数据CSV
     private void saveRawDataToCsv(List<AllDataModel> rawData) {
         if (rawData.isEmpty()) {
@@ -1019,14 +1071,14 @@ public class MainActivity extends AppCompatActivity {
     }
 
     // 同步保存特征数据到CSV
-    private boolean saveFeatureDataToCsvSync(List<FeatureModel> featureModels) {
+    private boolean saveFeatureDataToCsvSync(List<FeatureModel> featureModels, String csvPath) {
         if (featureModels.isEmpty()) {
             tvInferResult.post(() -> tvInferResult.append("⚠️ 无特征数据可保存\n"));
             return false;
         }
 
         try {
-            File csvFile = new File(featureCsvPath);
+            File csvFile = new File(csvPath);
             if (!csvFile.getParentFile().exists()) {
                 csvFile.getParentFile().mkdirs();
             }
@@ -1034,13 +1086,14 @@ public class MainActivity extends AppCompatActivity {
             try (BufferedWriter writer = new BufferedWriter(
                     new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8))) {
                 writer.write('\ufeff'); // UTF-8 BOM
-                writer.write(FeatureModel.getCsvHeader() + "\n");
+                int featureCount = featureModels.isEmpty() ? 74 : featureModels.get(0).features.length;
+                writer.write(FeatureModel.getCsvHeader(featureCount) + "\n");
                 for (FeatureModel model : featureModels) {
                     writer.write(model.toCsv() + "\n");
                 }
             }
 
-            tvInferResult.post(() -> tvInferResult.append("✅ 原始特征数据已同步保存到：" + featureCsvPath + "\n"));
+            tvInferResult.post(() -> tvInferResult.append("✅ 原始特征数据已保存到：" + csvPath + "\n"));
             return true;
         } catch (IOException e) {
             tvInferResult.post(() -> tvInferResult.append("❌ 特征数据同步保存失败：" + e.getMessage() + "\n"));
@@ -1049,294 +1102,19 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // 从CSV读取74维特征
-    private List<float[]> readFeaturesFromCsv(String csvPath) {
-        List<float[]> featuresList = new ArrayList<>();
-        try {
-            File csvFile = new File(csvPath);
-            if (!csvFile.exists()) {
-                tvInferResult.post(() -> tvInferResult.append("❌ 特征CSV文件不存在：" + csvPath + "\n"));
-                return featuresList;
-            }
-
-            List<String> lines = Files.readAllLines(csvFile.toPath(), StandardCharsets.UTF_8);
-            if (lines.size() < 2) {
-                tvInferResult.post(() -> tvInferResult.append("❌ 特征CSV数据为空：" + csvPath + "\n"));
-                return featuresList;
-            }
-
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split(",");
-                // 修复：处理后的CSV列数 = 6（元数据） + 74×3（每个特征3列）
-                if (parts.length != 6 + 74 * 3) {
-                    final int lineNumber = i;
-                    tvInferResult.post(() -> tvInferResult.append("⚠️ 特征CSV格式错误，行" + lineNumber + "列数=" + parts.length + "，预期" + (6 + 74*3) + "列，跳过\n"));
-                    continue;
-                }
-
-                float[] features = new float[74];
-                // 修复：读取每个特征的「标准化值」列（第6+3j列，j从0到73）
-                for (int j = 0; j < 74; j++) {
-                    try {
-                        // 处理后的CSV列顺序：元数据(6列) → 特征1_标准化(6)、特征1_均值(7)、特征1_标准差(8) → 特征2_标准化(9)、...
-                        int scaledValIndex = 6 + j * 3; // 标准化值所在列的索引
-                        features[j] = Float.parseFloat(parts[scaledValIndex]);
-                    } catch (NumberFormatException e) {
-                        features[j] = 0f;
-                        final int featureIndex = j;
-                        tvInferResult.post(() -> tvInferResult.append("⚠️ 特征" + (featureIndex + 1) + "解析失败：" + parts[6 + featureIndex * 3] + "\n"));
-                    }
-                }
-                featuresList.add(features);
-            }
-
-            tvInferResult.post(() -> tvInferResult.append("✅ 从CSV读取特征：" + featuresList.size() + "条，每条74维\n"));
-        } catch (IOException e) {
-            tvInferResult.post(() -> tvInferResult.append("❌ 读取特征CSV失败：" + e.getMessage() + "\n"));
-            e.printStackTrace();
-        }
-        return featuresList;
-    }
-
+    // dataCopy已按时间排序（RawDataMerger），区间按起点排序后一次扫描切分会话
     private List<TouchSession> preprocessInferData(List<AllDataModel> dataCopy, List<long[]> intervalsCopy) {
-        List<TouchSession> sessions = new ArrayList<>();
-        if (intervalsCopy.isEmpty()) return sessions;
-
         Collections.sort(intervalsCopy, (a, b) -> Long.compare(a[0], b[0]));
-
-        for (int i = 0; i < intervalsCopy.size(); i++) {
-            long[] interval = intervalsCopy.get(i);
-            long tstart = interval[0];
-            long tend = interval[1];
-
-            if (i < intervalsCopy.size() - 1) {
-                long nextTstart = intervalsCopy.get(i + 1)[0];
-                if (tend >= nextTstart) {
-                    tend = nextTstart - 1;
-                    Log.w("TouchFix", "修正重叠区间：原tend=" + interval[1] + " → 新tend=" + tend);
-                }
-            }
-
-            TouchSession session = new TouchSession();
-            boolean hasPress = false;
-            boolean hasSlide = false;
-            boolean hasRelease = false;
-
-            for (AllDataModel data : dataCopy) {
-                if (data == null) continue;
-
-                boolean inTimeRange = data.getTime() >= tstart && data.getTime() <= tend;
-                boolean isEffectiveType = "按下".equals(data.touchType)
-                        || "滑动中".equals(data.touchType)
-                        || "抬起".equals(data.touchType);
-
-                if (!inTimeRange || !isEffectiveType) {
-                    continue;
-                }
-
-                if ("按下".equals(data.touchType)) hasPress = true;
-                if ("滑动中".equals(data.touchType)) hasSlide = true;
-                if ("抬起".equals(data.touchType)) hasRelease = true;
-
-                session.addData(data);
-                Log.d("PreprocessDebug", "[SESSION_" + i + "] 添加数据：类型=" + data.touchType);
-            }
-
-            if (hasPress && hasSlide && hasRelease && !session.getDataList().isEmpty()) {
-                sessions.add(session);
-                Log.d("PreprocessDebug", "[SESSION_ADD] 有效会话" + i + "：数据条数=" + session.getDataList().size());
-            } else {
-                Log.d("PreprocessDebug", "[SESSION_SKIP] 会话" + i + "无效");
-            }
-        }
-
-        return sessions;
+        return TouchSessionizer.sessionize(dataCopy, intervalsCopy);
     }
 
-    private float[] extractTouchFeatures(TouchSession session) {
-        List<AllDataModel> dataList = session.getDataList();
-        if (dataList.size() < 2) return null;
-
-        List<Float> features = new ArrayList<>();
-        AllDataModel first = dataList.get(0);
-        AllDataModel last = dataList.get(dataList.size() - 1);
-
-        // 1. 基础位置特征（4个）
-        features.add(first.x);
-        features.add(first.y);
-        features.add(last.x);
-        features.add(last.y);
-
-        // 2. 位移与移动长度特征（3个）
-        double displacement = Math.hypot(last.x - first.x, last.y - first.y);
-        double moveLength = 0;
-        for (int i = 0; i < dataList.size() - 1; i++) {
-            AllDataModel curr = dataList.get(i);
-            AllDataModel next = dataList.get(i + 1);
-            moveLength += Math.hypot(next.x - curr.x, next.y - curr.y);
-        }
-        double displacementMoveRatio = moveLength == 0 ? 0 : displacement / moveLength;
-        features.add((float) displacement);
-        features.add((float) moveLength);
-        features.add((float) displacementMoveRatio);
-
-        // 3. 角度1特征（4个）
-        List<Float> angle1List = new ArrayList<>();
-        for (AllDataModel data : dataList) {
-            float angle = (float) Math.atan2(data.y, data.x);
-            if (angle < 0) angle += 2 * (float) Math.PI;
-            angle1List.add(angle);
-        }
-        features.add((float) calculateMean(angle1List));
-        features.add((float) calculateMax(angle1List));
-        features.add((float) calculateMin(angle1List));
-        features.add((float) calculateVariance(angle1List, calculateMean(angle1List)));
-
-        // 4. 角度2特征（4个）
-        List<Float> angle2List = new ArrayList<>();
-        for (int i = 0; i < dataList.size() - 1; i++) {
-            AllDataModel curr = dataList.get(i);
-            AllDataModel next = dataList.get(i + 1);
-            float dx = next.x - curr.x;
-            float dy = next.y - curr.y;
-            float angle = (float) Math.atan2(dy, dx);
-            angle2List.add(angle);
-        }
-        features.add((float) calculateMean(angle2List));
-        features.add((float) calculateMax(angle2List));
-        features.add((float) calculateMin(angle2List));
-        features.add((float) calculateVariance(angle2List, calculateMean(angle2List)));
-
-        // 5. 时间特征（1个）
-        features.add((float) (last.time - first.time));
-
-        // 6. 速度特征（4个）
-        List<Float> speedList = new ArrayList<>();
-        for (int i = 0; i < dataList.size() - 1; i++) {
-            AllDataModel curr = dataList.get(i);
-            AllDataModel next = dataList.get(i + 1);
-            long timeDiff = next.time - curr.time;
-            if (timeDiff == 0) continue;
-            double distance = Math.hypot(next.x - curr.x, next.y - curr.y);
-            speedList.add((float) (distance / timeDiff));
-        }
-        features.add((float) calculateMean(speedList));
-        features.add((float) calculateMax(speedList));
-        features.add((float) calculateMin(speedList));
-        features.add((float) calculateVariance(speedList, calculateMean(speedList)));
-
-        // 7. 压力特征（4个）
-        List<Float> pressureList = dataList.stream().map(d -> d.pressure).collect(Collectors.toList());
-        features.add((float) calculateMean(pressureList));
-        features.add((float) calculateMax(pressureList));
-        features.add((float) calculateMin(pressureList));
-        features.add((float) calculateVariance(pressureList, calculateMean(pressureList)));
-
-        // 8. 面积特征（4个）
-        List<Float> areaList = dataList.stream().map(d -> d.size).collect(Collectors.toList());
-        features.add((float) calculateMean(areaList));
-        features.add((float) calculateMax(areaList));
-        features.add((float) calculateMin(areaList));
-        features.add((float) calculateVariance(areaList, calculateMean(areaList)));
-
-        // 9. 移动角度特征（1个）
-        float dx = last.x - first.x;
-        float dy = last.y - first.y;
-        float moveAngle = (float) Math.atan2(dy, dx);
-        if (moveAngle < 0) moveAngle += 2 * (float) Math.PI;
-        features.add(moveAngle);
-
-        // 10. 加速度特征（X/Y/Z各5个，共15个）
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.accX).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.accY).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.accZ).collect(Collectors.toList())));
-
-        // 11. 角速度特征（X/Y/Z各5个，共15个）
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.gyroX).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.gyroY).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.gyroZ).collect(Collectors.toList())));
-
-        // 12. 磁力计特征（X/Y/Z各5个，共15个）
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.magX).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.magY).collect(Collectors.toList())));
-        features.addAll(getSensorAxisFeatures(dataList.stream().map(d -> d.magZ).collect(Collectors.toList())));
-
-        if (features.size() != 74) {
-            Log.e("FeatureError", "特征数量不匹配：实际" + features.size() + "个，预期74个");
+    // 单次遍历提取74维特征（featureCount > 74时其后的扩展特征由调用方填写）；模型带降维投影时跳过未用到的特征组
+    private float[] extractTouchFeatures(TouchSession session, boolean[] required, int featureCount) {
+        float[] features = new float[featureCount];
+        if (!featureExtractor.extract(session.getDataList(), required, features)) {
             return null;
         }
-
-        float[] featureArray = new float[74];
-        for (int i = 0; i < 74; i++) {
-            featureArray[i] = features.get(i);
-        }
-        return featureArray;
-    }
-
-    private List<Float> getSensorAxisFeatures(List<Float> values) {
-        List<Float> axisFeatures = new ArrayList<>();
-        if (values.isEmpty()) {
-            axisFeatures.add(0f);
-            axisFeatures.add(0f);
-            axisFeatures.add(0f);
-            axisFeatures.add(0f);
-            axisFeatures.add(0f);
-            return axisFeatures;
-        }
-
-        double mean = calculateMean(values);
-        double min = calculateMin(values);
-        double max = calculateMax(values);
-        double variance = calculateVariance(values, mean);
-        double complexity = calculateComplexity(values);
-
-        axisFeatures.add((float) mean);
-        axisFeatures.add((float) min);
-        axisFeatures.add((float) max);
-        axisFeatures.add((float) variance);
-        axisFeatures.add((float) complexity);
-        return axisFeatures;
-    }
-
-    private double calculateMean(List<Float> values) {
-        if (values.isEmpty()) return 0.0;
-        double sum = 0.0;
-        for (float v : values) sum += v;
-        return sum / values.size();
-    }
-
-    private double calculateMax(List<Float> values) {
-        if (values.isEmpty()) return 0.0;
-        double max = values.get(0);
-        for (float v : values) if (v > max) max = v;
-        return max;
-    }
-
-    private double calculateMin(List<Float> values) {
-        if (values.isEmpty()) return 0.0;
-        double min = values.get(0);
-        for (float v : values) if (v < min) min = v;
-        return min;
-    }
-
-    private double calculateVariance(List<Float> values, double mean) {
-        if (values.isEmpty()) return 0.0;
-        double sumSq = 0.0;
-        for (float v : values) sumSq += Math.pow(v - mean, 2);
-        return sumSq / values.size();
-    }
-
-    private double calculateComplexity(List<Float> values) {
-        if (values.size() < 2) return 0.0;
-        double sumDiffSq = 0.0;
-        for (int i = 0; i < values.size() - 1; i++) {
-            double diff = values.get(i + 1) - values.get(i);
-            sumDiffSq += diff * diff;
-        }
-        return Math.sqrt(sumDiffSq);
+        return features;
     }
 
     private void initSensors() {
@@ -1363,6 +1141,8 @@ public class MainActivity extends AppCompatActivity {
         sensorThread = new HandlerThread("SensorThread");
         sensorThread.start();
         sensorHandler = new Handler(sensorThread.getLooper());
+        sensorSource = new AndroidSensorSource(sensorManager, accelerometer, gyroscope, magnetometer,
+                sensorHandler, SENSOR_BATCH_LATENCY_US);
     }
 
     private void initFrequencySpinner() {
@@ -1397,80 +1177,29 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private final SensorEventListener sensorListener = new SensorEventListener() {
-        @Override
-        public void onSensorChanged(SensorEvent event) {
-            if (!isInferring || event == null || event.values == null) return;
-
-            float accX = 0, accY = 0, accZ = 0;
-            float gyroX = 0, gyroY = 0, gyroZ = 0;
-            float magX = 0, magY = 0, magZ = 0;
-            switch (event.sensor.getType()) {
-                case Sensor.TYPE_LINEAR_ACCELERATION:
-                    accX = event.values[0];
-                    accY = event.values[1];
-                    accZ = event.values[2];
-                    break;
-                case Sensor.TYPE_GYROSCOPE:
-                    gyroX = event.values[0];
-                    gyroY = event.values[1];
-                    gyroZ = event.values[2];
-                    break;
-                case Sensor.TYPE_MAGNETIC_FIELD:
-                    magX = event.values[0];
-                    magY = event.values[1];
-                    magZ = event.values[2];
-                    break;
-            }
-
-            dataLock.lock();
-            try {
-                if (!inferRawData.isEmpty()) {
-                    AllDataModel latestData = inferRawData.get(inferRawData.size() - 1);
-                    if (System.currentTimeMillis() - latestData.time < 1000) {
-                        AllDataModel updatedData = new AllDataModel(
-                                latestData.touchType,
-                                latestData.touchDirection,
-                                latestData.x,
-                                latestData.y,
-                                latestData.pressure,
-                                latestData.size,
-                                latestData.time,
-                                latestData.actionId,
-                                accX, accY, accZ,
-                                gyroX, gyroY, gyroZ,
-                                magX, magY, magZ
-                        );
-                        inferRawData.set(inferRawData.size() - 1, updatedData);
-                    }
-                }
-            } finally {
-                dataLock.unlock();
-            }
-
-            float touchX = currentTouchType.equals("无触摸") ? 0 : currentTouchX;
-            float touchY = currentTouchType.equals("无触摸") ? 0 : currentTouchY;
-            AllDataModel data = new AllDataModel(
-                    currentTouchType != null ? currentTouchType : "无触摸",
-                    currentTouchDirection != null ? currentTouchDirection : "无",
-                    touchX, touchY, currentPressure, currentSize,
-                    System.currentTimeMillis(),
-                    currentActionId,
-                    accX, accY, accZ, gyroX, gyroY, gyroZ, magX, magY, magZ
-            );
-
-            dataLock.lock();
-            try {
-                inferRawData.add(data);
-            } finally {
-                dataLock.unlock();
-            }
+    // 在传感器线程上执行：读数交给重采样，输出的融合行写入队列后推进水位
+    private final SensorSource.Callback sensorCallback = (sensor, timeNanos, x, y, z) -> {
+        if (!isInferring) return;
+        sensorResampler.update(sensor, timeNanos, x, y, z, fusedRowSink);
+        long nextTick = sensorResampler.getNextTickNanos();
+        long watermark = nextTick > 0 ? nextTick / 1_000_000L : -1;
+        if (sampleMerger.advanceWatermark(watermark)) {
+            wakeSampleConsumer();
         }
-
-        @Override
-        public void onAccuracyChanged(Sensor sensor, int accuracy) {}
     };
 
+    // 重采样输出的每个节拍写入传感器队列（传感器线程），触摸状态由消费线程按行的时间标注
+    private void enqueueSensorRow(long timeNanos, float[] values) {
+        int slot = sensorQueue.claim();
+        if (slot < 0) return;
+        sensorQueue.kind[slot] = SpscSampleQueue.KIND_SENSOR;
+        sensorQueue.time[slot] = timeNanos / 1_000_000L;
+        for (int k = 0; k < values.length; k++) {
+            sensorQueue.sensors[k][slot] = values[k];
+        }
+        sensorQueue.publish();
+    }
+
     private void handleTouchEvent(MotionEvent event) {
         if (event == null) return;
 
@@ -1487,32 +1216,35 @@ public class MainActivity extends AppCompatActivity {
                 currentTouchMaxLiftTime = 0;
                 Log.d("TouchFix", "新动作开始（ID=" + currentActionId + "）：tstart=" + currentTouchStart);
 
-                currentTouchType = "按下";
-                currentTouchDirection = "无";
+                currentTouchType = RawSampleBuffer.TOUCH_PRESS;
+                currentTouchDirection = RawSampleBuffer.DIRECTION_NONE;
                 currentTouchX = rawX;
                 currentTouchY = rawY;
                 currentPressure = event.getPressure();
                 currentSize = event.getSize();
                 currentMotionEvent = MotionEvent.obtain(event);
 
-                saveTouchDataToCache("按下", "无", rawX, rawY, currentPressure, currentSize, time);
+                saveTouchDataToCache(RawSampleBuffer.TOUCH_PRESS, RawSampleBuffer.DIRECTION_NONE,
+                        rawX, rawY, currentPressure, currentSize, time);
+                if (isInferring) sensorSource.flush();
                 break;
 
             case MotionEvent.ACTION_MOVE:
-                currentTouchType = "滑动中";
+                currentTouchType = RawSampleBuffer.TOUCH_SLIDE;
                 currentTouchX = rawX;
                 currentTouchY = rawY;
                 currentPressure = event.getPressure();
                 currentSize = event.getSize();
                 currentMotionEvent = MotionEvent.obtain(event);
 
-                saveTouchDataToCache("滑动中", "无", rawX, rawY, currentPressure, currentSize, time);
+                saveTouchDataToCache(RawSampleBuffer.TOUCH_SLIDE, RawSampleBuffer.DIRECTION_NONE,
+                        rawX, rawY, currentPressure, currentSize, time);
                 Log.d("TouchFix", "[滑动中] 动作ID=" + currentActionId);
                 break;
 
             case MotionEvent.ACTION_UP:
-                currentTouchType = "抬起";
-                currentTouchDirection = getSlideDirection(event.getX(), event.getY());
+                currentTouchType = RawSampleBuffer.TOUCH_RELEASE;
+                currentTouchDirection = RawSampleBuffer.encodeDirection(getSlideDirection(event.getX(), event.getY()));
                 currentTouchX = rawX;
                 currentTouchY = rawY;
                 currentPressure = event.getPressure();
@@ -1522,40 +1254,156 @@ public class MainActivity extends AppCompatActivity {
                 currentTouchMaxLiftTime = time;
                 Log.d("TouchFix", "[抬起] 动作ID=" + currentActionId + "，时间=" + time);
 
-                saveTouchDataToCache("抬起", currentTouchDirection, rawX, rawY, currentPressure, currentSize, time);
+                saveTouchDataToCache(RawSampleBuffer.TOUCH_RELEASE, currentTouchDirection,
+                        rawX, rawY, currentPressure, currentSize, time);
+                if (isInferring) sensorSource.flush();
 
                 mainContainer.removeCallbacks(liftFinishRunnable);
                 mainContainer.postDelayed(liftFinishRunnable, LIFT_WAIT_DELAY);
                 break;
 
             default:
-                if (!"按下".equals(currentTouchType) && !"滑动中".equals(currentTouchType) && !"抬起".equals(currentTouchType)) {
-                    currentTouchType = "无触摸";
+                if (currentTouchType == RawSampleBuffer.TOUCH_NONE) {
                     currentMotionEvent = null;
                 }
                 break;
         }
     }
 
-    private void saveTouchDataToCache(String touchType, String direction, float x, float y, float pressure, float size, long time) {
+    private void saveTouchDataToCache(byte touchType, byte direction, float x, float y, float pressure, float size, long time) {
         if (!isInferring) return;
 
-        AllDataModel touchData = new AllDataModel(
-                touchType, direction,
-                x, y, pressure, size,
-                time,
-                currentActionId,
-                0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f
-        );
+        int slot = touchQueue.claim();
+        if (slot < 0) return;
+        touchQueue.kind[slot] = SpscSampleQueue.KIND_TOUCH;
+        touchQueue.touchType[slot] = touchType;
+        touchQueue.direction[slot] = direction;
+        touchQueue.x[slot] = x;
+        touchQueue.y[slot] = y;
+        touchQueue.pressure[slot] = pressure;
+        touchQueue.size[slot] = size;
+        touchQueue.time[slot] = time;
+        touchQueue.actionId[slot] = currentActionId;
+        touchQueue.publish();
+        wakeSampleConsumer();
+    }
 
-        dataLock.lock();
-        try {
-            inferRawData.add(touchData);
-        } finally {
-            dataLock.unlock();
+    private void startSampleConsumer() {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (running.get()) {
+                boolean pending = false;
+                if (!sampleMerger.isEmpty()) {
+                    dataLock.lock();
+                    try {
+                        if (!running.get()) break;
+                        pending = drainSampleQueues(false);
+                    } finally {
+                        dataLock.unlock();
+                    }
+                }
+                // 留有未到齐的事件时按间隔复查，否则等生产者唤醒（先唤醒后休眠时park立即返回，不会漏掉）
+                if (pending) {
+                    LockSupport.parkNanos(SAMPLE_RECHECK_NS);
+                } else {
+                    LockSupport.park();
+                }
+            }
+        }, "SampleConsumer");
+        sampleConsumerRunning = running;
+        sampleConsumer = consumer;
+        consumer.start();
+    }
+
+    // 调用方持有dataLock；返回后旧的消费线程不会再读写样本存储（它只凭自己的停止标志判断，随后立即开始的新线程不影响它退出）
+    private void stopSampleConsumer() {
+        if (sampleConsumerRunning != null) {
+            sampleConsumerRunning.set(false);
+            sampleConsumerRunning = null;
+        }
+        Thread consumer = sampleConsumer;
+        if (consumer != null) {
+            sampleConsumer = null;
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    // 生产者发布事件（或推进水位）后调用
+    private void wakeSampleConsumer() {
+        Thread consumer = sampleConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
         }
     }
 
+    // 按时间顺序合并取出两个队列中已发布的事件（调用方持有dataLock），force为true时（收集结束）取完所有事件。
+    // 返回队列中是否还留有未到齐的事件
+    private boolean drainSampleQueues(boolean force) {
+        return sampleMerger.drain(force, System.currentTimeMillis(), sampleSink);
+    }
+
+    private final SampleQueueMerger.Sink sampleSink = new SampleQueueMerger.Sink() {
+        @Override
+        public void onTouch(SpscSampleQueue queue, int slot) {
+            applyTouchEvent(queue, slot);
+        }
+
+        @Override
+        public void onSensor(SpscSampleQueue queue, int slot) {
+            applySensorEvent(queue, slot);
+        }
+    };
+
+    private void applyTouchEvent(SpscSampleQueue q, int slot) {
+        if (q.kind[slot] == SpscSampleQueue.KIND_INTERVAL) {
+            touchIntervals.add(new long[]{q.intervalStart[slot], q.time[slot]});
+            return;
+        }
+        if (q.kind[slot] == SpscSampleQueue.KIND_TOUCH_END) {
+            resetSampleTouchState();
+            return;
+        }
+        if (q.touchType[slot] == RawSampleBuffer.TOUCH_PRESS) {
+            liveFeatures.begin(q.actionId[slot], requiredFeatures);
+        }
+        sampleTouchType = q.touchType[slot];
+        sampleTouchDirection = q.direction[slot];
+        sampleTouchX = q.x[slot];
+        sampleTouchY = q.y[slot];
+        samplePressure = q.pressure[slot];
+        sampleSize = q.size[slot];
+        sampleActionId = q.actionId[slot];
+        int row = touchRawData.append(sampleTouchType, sampleTouchDirection, sampleTouchX, sampleTouchY,
+                samplePressure, sampleSize, q.time[slot], sampleActionId);
+        float[] v = latestSensorRow;
+        touchRawData.setSensors(row, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8]);
+        liveFeatures.onRowAdded(touchRawData, row);
+    }
+
+    // 追加一行融合传感器行，标注为该时刻的触摸状态，并记为之后触摸行的传感器读数
+    private void applySensorEvent(SpscSampleQueue q, int slot) {
+        float[][] v = q.sensors;
+        int row = sensorRawData.append(sampleTouchType, sampleTouchDirection, sampleTouchX, sampleTouchY,
+                samplePressure, sampleSize, q.time[slot], sampleActionId);
+        for (int k = 0; k < latestSensorRow.length; k++) {
+            latestSensorRow[k] = v[k][slot];
+        }
+        sensorRawData.setSensors(row, latestSensorRow[0], latestSensorRow[1], latestSensorRow[2],
+                latestSensorRow[3], latestSensorRow[4], latestSensorRow[5],
+                latestSensorRow[6], latestSensorRow[7], latestSensorRow[8]);
+        liveFeatures.onRowAdded(sensorRawData, row);
+    }
+
+    // 与liftFinishRunnable复位UI触摸状态一致（动作ID保留）
+    private void resetSampleTouchState() {
+        sampleTouchType = RawSampleBuffer.TOUCH_NONE;
+        sampleTouchDirection = RawSampleBuffer.DIRECTION_NONE;
+        sampleTouchX = 0f;
+        sampleTouchY = 0f;
+        samplePressure = 0f;
+        sampleSize = 0f;
+    }
+
     private void handleGameSlide(MotionEvent event) {
         if (event == null) return;
 
@@ -1617,16 +1465,27 @@ public class MainActivity extends AppCompatActivity {
             long finalTend = currentTouchMaxLiftTime;
             Log.d("TouchFix", "动作ID=" + currentActionId + " 结束：tend=" + finalTend);
 
-            dataLock.lock();
-            try {
-                touchIntervals.add(new long[]{currentTouchStart, finalTend});
-            } finally {
-                dataLock.unlock();
+            int slot = touchQueue.claim();
+            if (slot >= 0) {
+                touchQueue.kind[slot] = SpscSampleQueue.KIND_INTERVAL;
+                touchQueue.intervalStart[slot] = currentTouchStart;
+                touchQueue.time[slot] = finalTend;
+                touchQueue.publish();
+                wakeSampleConsumer();
             }
 
             mainContainer.postDelayed(() -> {
-                currentTouchType = "无触摸";
-                currentTouchDirection = "无";
+                if (isInferring) {
+                    int endSlot = touchQueue.claim();
+                    if (endSlot >= 0) {
+                        touchQueue.kind[endSlot] = SpscSampleQueue.KIND_TOUCH_END;
+                        touchQueue.time[endSlot] = System.currentTimeMillis();
+                        touchQueue.publish();
+                        wakeSampleConsumer();
+                    }
+                }
+                currentTouchType = RawSampleBuffer.TOUCH_NONE;
+                currentTouchDirection = RawSampleBuffer.DIRECTION_NONE;
                 currentTouchX = 0f;
                 currentTouchY = 0f;
                 currentPressure = 0f;
@@ -1649,8 +1508,12 @@ public class MainActivity extends AppCompatActivity {
 
         dataLock.lock();
         try {
+            stopSampleConsumer();
             touchIntervals.clear();
-            inferRawData.clear();
+            touchRawData.clear();
+            sensorRawData.clear();
+            liveFeatures.clear();
+            sessionPipeline.cancel();
             currentTouchStart = 0;
             currentTouchMaxLiftTime = 0;
             isCurrentTouchFinished = true;
@@ -1661,7 +1524,7 @@ public class MainActivity extends AppCompatActivity {
 
         if (isSensorRegistered) {
             try {
-                sensorManager.unregisterListener(sensorListener);
+                sensorSource.stop();
                 isSensorRegistered = false;
             } catch (Exception e) {
                 Log.e("SensorInferDebug", "[SENSOR_UNREG] 应用退后台，传感器注销失败：" + e.getMessage(), e);
@@ -1673,6 +1536,10 @@ public class MainActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         isInferring = false;
+        pendingInferStart = false;
+        modelLoadExecutor.shutdownNow();
+        featureCsvExecutor.shutdown(); // 已提交的CSV写入继续完成
+        sessionPipeline.shutdown();
 
         mainContainer.removeCallbacks(liftFinishRunnable);
 
@@ -1684,8 +1551,11 @@ public class MainActivity extends AppCompatActivity {
 
         dataLock.lock();
         try {
+            stopSampleConsumer();
             touchIntervals.clear();
-            inferRawData.clear();
+            touchRawData.clear();
+            sensorRawData.clear();
+            liveFeatures.clear();
             inferScores.clear();
             currentTouchStart = 0;
             currentTouchMaxLiftTime = 0;
@@ -1695,9 +1565,9 @@ public class MainActivity extends AppCompatActivity {
             dataLock.unlock();
         }
 
-        if (sensorManager != null && isSensorRegistered) {
+        if (sensorSource != null && isSensorRegistered) {
             try {
-                sensorManager.unregisterListener(sensorListener);
+                sensorSource.stop();
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -1757,7 +1627,7 @@ public class MainActivity extends AppCompatActivity {
                             writer.write("事件类型,X坐标,Y坐标,时间戳(毫秒),压力,面积,滑动方向,动作ID," +
                                     "加速度X,加速度Y,加速度Z,角速度X,角速度Y,角速度Z,磁场X,磁场Y,磁场Z\n");
                         } else {
-                            writer.write(FeatureModel.getCsvHeader() + "\n");
+                            writer.write(FeatureModel.getCsvHeader(TouchFeatureExtractor.FEATURE_COUNT) + "\n");
                         }
                     }
 
@@ -0,0 +1,712 @@
+package com.example.infer;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+// OCSVM模型类（新增填充均值参数）
+// 优先加载二进制模型（内存映射，零解析），JSON参数仅作为转换来源
+public class OCSVMModel {
+    // 二进制模型文件名（放在assets中时需在build.gradle里配置 aaptOptions { noCompress "bin" }，否则无法openFd映射）
+    public static final String BINARY_MODEL_FILE = "ocsvm_model.bin";
+    public static final String JSON_MODEL_FILE = "ocsvm_params.json";
+    public static final String JSON_SCALER_FILE = "scaler_params.json";
+
+    // 二进制格式（小端）：
+    // [0]  magic "OCSV"          4字节
+    // [4]  version               int（1或2）
+    // [8]  rawDims               int（原始特征维度，v1中即支持向量维度）
+    // [12] svCount               int
+    // [16] gamma                 float
+    // [20] intercept             float
+    // v2新增：
+    // [24] dims                  int（投影后的支持向量维度）
+    // [28] projectionType        int（0无投影，1特征选择，2投影矩阵）
+    // [32] flags                 int（bit0：输入特征在74维时域特征后追加54维传感器频域特征；
+    //                                 bit1：训练数据的传感器行为按采样率重采样的融合9轴行，见FLAG_FUSED_SENSOR_ROWS）
+    // 之后依次为：
+    //      dualCoef              float[svCount]
+    //      scalerMean            float[rawDims]
+    //      scalerStd             float[rawDims]
+    //      imputerMean           float[rawDims]
+    //      projection            特征选择：int[dims]（所选原始特征下标）；投影矩阵：float[dims * rawDims]（如PCA，行优先）
+    //      supportVectors        float[svCount * dims]（行优先，连续存放）
+    static final int BINARY_MAGIC = 0x5653434F; // "OCSV"（小端读取）
+    static final int BINARY_VERSION_V1 = 1;
+    static final int BINARY_VERSION = 2;
+    static final int BINARY_HEADER_SIZE_V1 = 24;
+    static final int BINARY_HEADER_SIZE = 36;
+    static final int FEATURE_DIMS = 74;
+    public static final int FLAG_SPECTRAL_FEATURES = 1;
+    // 训练数据由按采样率输出融合9轴传感器行的采集版本录制（SensorResampler）。旧版本每个传感器读数单独成行、另两个传感器各轴为0，
+    // 在其上训练的模型（以及不带flags的JSON模型）与当前采集的传感器统计量分布不同，须用新数据重新训练
+    public static final int FLAG_FUSED_SENSOR_ROWS = 2;
+    private static final int KNOWN_FLAGS = FLAG_SPECTRAL_FEATURES | FLAG_FUSED_SENSOR_ROWS;
+
+    // 标准化之后的降维方式
+    public static final int PROJECTION_NONE = 0;
+    public static final int PROJECTION_SELECT = 1;
+    public static final int PROJECTION_MATRIX = 2;
+
+    // 打分方式：精确RBF核求和，或用显式低维特征映射近似（打分成本与支持向量数量无关）
+    public enum ScoringMode {
+        EXACT,
+        RANDOM_FOURIER,
+        PRUNED,
+        INT8,
+        FP16
+    }
+
+    public static final int DEFAULT_RFF_DIM = 256;
+    public static final long DEFAULT_RFF_SEED = 20240101L;
+    public static final double DEFAULT_PRUNE_EPSILON = 1e-4;
+
+    private float[] supportVectors; // svCount * dims，行优先连续存放
+    private int svCount;
+    private int dims;     // 支持向量（投影后）维度
+    private int rawDims;  // 输入特征（填充+标准化后、投影前）维度
+    private int projectionType = PROJECTION_NONE;
+    private int flags;
+    private int[] selectedFeatures;   // PROJECTION_SELECT：dims个原始特征下标
+    private float[] projectionMatrix; // PROJECTION_MATRIX：dims * rawDims
+    private float[] dualCoef;
+    private float intercept;
+    private float gamma;
+    private float[] scalerMean;
+    private float[] scalerStd;
+    private float[] imputerMean; // Python训练集的缺失值填充均值
+    private FeatureTransformer featureTransformer; // 由上面三组参数构建，首次使用时创建
+    private DecisionFunction decisionFunction;
+    private ScoringMode scoringMode = ScoringMode.EXACT;
+
+    // 加载顺序：assets中的二进制模型 → 缓存目录中的二进制模型 → JSON参数（加载后转换为二进制写入缓存）。
+    // assets只随安装包更新，缓存文件名带有assetVersion（调用方传入安装包的PackageInfo.lastUpdateTime），
+    // 应用更新换了JSON后不会再用到旧缓存，且判断缓存是否有效无需读取JSON；assetVersion不大于0时不使用缓存
+    public void loadParams(AssetManager assetManager, File cacheDir, long assetVersion) throws Exception {
+        loadParams(assetManager, cacheDir, "", assetVersion);
+    }
+
+    // modelName为空时加载全局模型；否则加载带后缀的模型文件，如 ocsvm_model_left.bin / ocsvm_params_left.json，
+    // JSON形式的分模型与全局模型共用 scaler_params.json（分模型在全局标准化后的特征空间上训练）
+    public void loadParams(AssetManager assetManager, File cacheDir, String modelName, long assetVersion) throws Exception {
+        String binaryFile = modelFileName(BINARY_MODEL_FILE, modelName);
+        if (loadBinaryFromAssets(assetManager, binaryFile)) {
+            return;
+        }
+
+        String jsonFile = modelFileName(JSON_MODEL_FILE, modelName);
+        File cachedModel = cacheDir != null && assetVersion > 0
+                ? new File(cacheDir, cacheFileName(binaryFile, assetVersion)) : null;
+        if (cachedModel != null && cachedModel.exists()) {
+            try {
+                loadBinaryParams(mapFile(cachedModel));
+                return;
+            } catch (Exception e) {
+                android.util.Log.w("OCSVM_LOAD", "缓存二进制模型无效，改用JSON重新转换：" + e.getMessage());
+            }
+        }
+
+        loadJsonParams(assetManager, jsonFile);
+
+        if (cachedModel != null) {
+            deleteStaleCaches(cacheDir, binaryFile, cachedModel.getName());
+            try {
+                writeBinaryParams(cachedModel);
+            } catch (IOException e) {
+                android.util.Log.w("OCSVM_LOAD", "二进制模型缓存写入失败：" + e.getMessage());
+            }
+        }
+    }
+
+    // ocsvm_model_left.bin + 版本 → ocsvm_model_left_v18c2f3a4b5e.bin
+    static String cacheFileName(String binaryFile, long assetVersion) {
+        int dot = binaryFile.lastIndexOf('.');
+        return binaryFile.substring(0, dot) + "_v" + Long.toHexString(assetVersion) + binaryFile.substring(dot);
+    }
+
+    // 删除同一模型由旧JSON转换的缓存（包括旧版按CRC32命名和不带后缀的文件名）
+    private static void deleteStaleCaches(File cacheDir, String binaryFile, String currentName) {
+        int dot = binaryFile.lastIndexOf('.');
+        String pattern = Pattern.quote(binaryFile.substring(0, dot)) + "(_v?[0-9a-f]+)?" + Pattern.quote(binaryFile.substring(dot));
+        File[] files = cacheDir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.equals(currentName) && name.matches(pattern) && !file.delete()) {
+                android.util.Log.w("OCSVM_LOAD", "旧模型缓存删除失败：" + name);
+            }
+        }
+    }
+
+    // ocsvm_model.bin + "left" → ocsvm_model_left.bin
+    static String modelFileName(String baseName, String modelName) {
+        if (modelName == null || modelName.isEmpty()) {
+            return baseName;
+        }
+        int dot = baseName.lastIndexOf('.');
+        return baseName.substring(0, dot) + "_" + modelName + baseName.substring(dot);
+    }
+
+    private boolean loadBinaryFromAssets(AssetManager assetManager, String fileName) throws Exception {
+        AssetFileDescriptor afd;
+        try {
+            afd = assetManager.openFd(fileName);
+        } catch (IOException e) {
+            // 资源不存在，或被压缩无法直接映射
+            return readCompressedBinaryAsset(assetManager, fileName);
+        }
+        try (FileInputStream fis = afd.createInputStream();
+             FileChannel channel = fis.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength());
+            loadBinaryParams(buffer);
+            return true;
+        } finally {
+            afd.close();
+        }
+    }
+
+    // 二进制资源被压缩时无法映射，退化为一次性读入直接缓冲区（仍然无需解析）
+    private boolean readCompressedBinaryAsset(AssetManager assetManager, String fileName) throws Exception {
+        InputStream is;
+        try {
+            is = assetManager.open(fileName);
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            byte[] bytes = readFully(is);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes);
+            buffer.flip();
+            loadBinaryParams(buffer);
+            return true;
+        } finally {
+            is.close();
+        }
+    }
+
+    private static ByteBuffer mapFile(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    public void loadBinaryParams(ByteBuffer buffer) throws Exception {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < BINARY_HEADER_SIZE_V1) {
+            throw new Exception("二进制模型文件过短：" + buffer.remaining() + "字节");
+        }
+        int magic = buffer.getInt();
+        if (magic != BINARY_MAGIC) {
+            throw new Exception("二进制模型文件头错误：0x" + Integer.toHexString(magic));
+        }
+        int version = buffer.getInt();
+        if (version != BINARY_VERSION_V1 && version != BINARY_VERSION) {
+            throw new Exception("二进制模型版本不支持：" + version);
+        }
+        int rawDims = buffer.getInt();
+        int svCount = buffer.getInt();
+        float gamma = buffer.getFloat();
+        float intercept = buffer.getFloat();
+        int dims = rawDims;
+        int projectionType = PROJECTION_NONE;
+        int flags = 0;
+        if (version >= BINARY_VERSION) {
+            if (buffer.remaining() < BINARY_HEADER_SIZE - BINARY_HEADER_SIZE_V1) {
+                throw new Exception("二进制模型文件过短：" + buffer.remaining() + "字节");
+            }
+            dims = buffer.getInt();
+            projectionType = buffer.getInt();
+            flags = buffer.getInt();
+        }
+        if ((flags & ~KNOWN_FLAGS) != 0) {
+            throw new Exception("二进制模型flags不支持：0x" + Integer.toHexString(flags));
+        }
+        int expectedRawDims = rawDimsFor(flags);
+        if (rawDims != expectedRawDims) {
+            throw new Exception("原始特征维度错误：预期" + expectedRawDims + "，实际" + rawDims);
+        }
+        if (dims <= 0 || dims > rawDims) {
+            throw new Exception("支持向量维度错误：" + dims + "（原始特征" + rawDims + "维）");
+        }
+        long projectionWords;
+        switch (projectionType) {
+            case PROJECTION_NONE:
+                projectionWords = 0;
+                if (dims != rawDims) throw new Exception("无投影时支持向量维度应为" + rawDims + "，实际" + dims);
+                break;
+            case PROJECTION_SELECT:
+                projectionWords = dims;
+                break;
+            case PROJECTION_MATRIX:
+                projectionWords = (long) dims * rawDims;
+                break;
+            default:
+                throw new Exception("投影类型不支持：" + projectionType);
+        }
+        long expectedWords = (long) svCount + 3L * rawDims + projectionWords + (long) svCount * dims;
+        if (svCount < 0 || buffer.remaining() < expectedWords * 4) {
+            throw new Exception("二进制模型长度错误：支持向量数" + svCount + "，剩余" + buffer.remaining() + "字节");
+        }
+
+        FloatBuffer floats = buffer.asFloatBuffer();
+        dualCoef = new float[svCount];
+        floats.get(dualCoef);
+        scalerMean = new float[rawDims];
+        floats.get(scalerMean);
+        scalerStd = new float[rawDims];
+        floats.get(scalerStd);
+        imputerMean = new float[rawDims];
+        floats.get(imputerMean);
+        selectedFeatures = null;
+        projectionMatrix = null;
+        if (projectionType == PROJECTION_SELECT) {
+            selectedFeatures = new int[dims];
+            buffer.position(buffer.position() + floats.position() * 4);
+            buffer.asIntBuffer().get(selectedFeatures);
+            floats.position(floats.position() + dims);
+            for (int index : selectedFeatures) {
+                if (index < 0 || index >= rawDims) throw new Exception("特征选择下标越界：" + index);
+            }
+        } else if (projectionType == PROJECTION_MATRIX) {
+            projectionMatrix = new float[dims * rawDims];
+            floats.get(projectionMatrix);
+        }
+        supportVectors = new float[svCount * dims];
+        floats.get(supportVectors);
+        this.gamma = gamma;
+        this.intercept = intercept;
+        this.svCount = svCount;
+        this.dims = dims;
+        this.rawDims = rawDims;
+        this.projectionType = projectionType;
+        this.flags = flags;
+        buildDecisionFunction();
+    }
+
+    // 用新的支持向量和对偶系数派生模型（压缩工具使用），其余参数沿用当前模型
+    OCSVMModel withSupportVectors(float[] newSupportVectors, int newSvCount, float[] newDualCoef) {
+        OCSVMModel derived = copyParams(newSupportVectors, newSvCount, newDualCoef);
+        derived.buildDecisionFunction();
+        return derived;
+    }
+
+    private OCSVMModel copyParams(float[] newSupportVectors, int newSvCount, float[] newDualCoef) {
+        OCSVMModel derived = new OCSVMModel();
+        derived.supportVectors = newSupportVectors;
+        derived.svCount = newSvCount;
+        derived.dims = dims;
+        derived.rawDims = rawDims;
+        derived.projectionType = projectionType;
+        derived.flags = flags;
+        derived.selectedFeatures = selectedFeatures;
+        derived.projectionMatrix = projectionMatrix;
+        derived.dualCoef = newDualCoef;
+        derived.intercept = intercept;
+        derived.gamma = gamma;
+        derived.scalerMean = scalerMean;
+        derived.scalerStd = scalerStd;
+        derived.imputerMean = imputerMean;
+        derived.featureTransformer = featureTransformer;
+        return derived;
+    }
+
+    private void buildDecisionFunction() {
+        decisionFunction = new RbfKernelEngine(supportVectors, svCount, dims, dualCoef, gamma);
+        scoringMode = ScoringMode.EXACT;
+    }
+
+    // 按打分方式派生模型，原模型保持精确打分，便于对比精度。
+    // 非精确模式的派生模型只保留其打分结构，不再引用float支持向量矩阵，
+    // 原模型释放后即可获得量化/近似带来的内存节省
+    public OCSVMModel withScoringMode(ScoringMode mode) {
+        switch (mode) {
+            case RANDOM_FOURIER:
+                return withRandomFourierFeatures(DEFAULT_RFF_DIM, DEFAULT_RFF_SEED);
+            case PRUNED:
+                return withPruning(DEFAULT_PRUNE_EPSILON);
+            case INT8:
+                return withPrecision(QuantizedKernelEngine.Precision.INT8);
+            case FP16:
+                return withPrecision(QuantizedKernelEngine.Precision.FP16);
+            case EXACT:
+            default:
+                return withSupportVectors(requireSupportVectors(), svCount, dualCoef);
+        }
+    }
+
+    public OCSVMModel withRandomFourierFeatures(int featureDim, long seed) {
+        return deriveApproximate(new RandomFourierFeatures(
+                requireSupportVectors(), svCount, dims, dualCoef, gamma, featureDim, seed), ScoringMode.RANDOM_FOURIER);
+    }
+
+    // 聚类剪枝：跳过对分数贡献可证明小于epsilon的支持向量簇，决策分数误差不超过epsilon
+    public OCSVMModel withPruning(double epsilon) {
+        return deriveApproximate(new PrunedKernelEngine(
+                requireSupportVectors(), svCount, dims, dualCoef, gamma, epsilon), ScoringMode.PRUNED);
+    }
+
+    // 量化存储：INT8 / FP16，核值使用FastExp近似
+    public OCSVMModel withPrecision(QuantizedKernelEngine.Precision precision) {
+        return deriveApproximate(new QuantizedKernelEngine(
+                        requireSupportVectors(), svCount, dims, dualCoef, gamma, precision),
+                precision == QuantizedKernelEngine.Precision.INT8 ? ScoringMode.INT8 : ScoringMode.FP16);
+    }
+
+    private OCSVMModel deriveApproximate(DecisionFunction function, ScoringMode mode) {
+        OCSVMModel derived = copyParams(null, svCount, dualCoef);
+        derived.decisionFunction = function;
+        derived.scoringMode = mode;
+        return derived;
+    }
+
+    private float[] requireSupportVectors() {
+        if (supportVectors == null) {
+            throw new IllegalStateException("当前模型为" + scoringMode + "打分方式，不包含原始支持向量");
+        }
+        return supportVectors;
+    }
+
+    // 以支持向量自身加高斯扰动作为参考样本，报告派生模型相对当前（精确）模型的分数偏差
+    public ScoreDeviationReport reportDrift(OCSVMModel approx, float threshold, int sampleCount, long seed) {
+        float[] sv = requireSupportVectors();
+        Random random = new Random(seed);
+        List<float[]> probes = new ArrayList<>(sampleCount);
+        for (int s = 0; s < sampleCount && svCount > 0; s++) {
+            int base = random.nextInt(svCount) * dims;
+            float[] probe = new float[dims];
+            for (int j = 0; j < dims; j++) {
+                probe[j] = sv[base + j] + (float) (random.nextGaussian() * 0.5);
+            }
+            probes.add(probe);
+        }
+        // 参考样本位于投影后的空间，直接走投影后的打分路径
+        float[][] batch = probes.toArray(new float[0][]);
+        return ScoreDeviationReport.compare("打分方式" + approx.scoringMode + "对比" + scoringMode,
+                inferProjectedBatch(batch), approx.inferProjectedBatch(batch), threshold);
+    }
+
+    // JSON→二进制转换：按上面的格式写出当前已加载的参数
+    public void writeBinaryParams(File target) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tmp = new File(target.getAbsolutePath() + ".tmp");
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tmp))) {
+            writeBinaryParams(os);
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("二进制模型重命名失败：" + target.getAbsolutePath());
+        }
+    }
+
+    public void writeBinaryParams(OutputStream os) throws IOException {
+        requireSupportVectors();
+        int projectionWords = projectionType == PROJECTION_SELECT ? dims
+                : projectionType == PROJECTION_MATRIX ? dims * rawDims : 0;
+        ByteBuffer buffer = ByteBuffer
+                .allocate(BINARY_HEADER_SIZE + 4 * (svCount + 3 * rawDims + projectionWords + svCount * dims))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(BINARY_MAGIC);
+        buffer.putInt(BINARY_VERSION);
+        buffer.putInt(rawDims);
+        buffer.putInt(svCount);
+        buffer.putFloat(gamma);
+        buffer.putFloat(intercept);
+        buffer.putInt(dims);
+        buffer.putInt(projectionType);
+        buffer.putInt(flags);
+        for (float v : dualCoef) buffer.putFloat(v);
+        for (float v : scalerMean) buffer.putFloat(v);
+        for (float v : scalerStd) buffer.putFloat(v);
+        for (float v : imputerMean) buffer.putFloat(v);
+        if (projectionType == PROJECTION_SELECT) {
+            for (int index : selectedFeatures) buffer.putInt(index);
+        } else if (projectionType == PROJECTION_MATRIX) {
+            for (float v : projectionMatrix) buffer.putFloat(v);
+        }
+        for (float v : supportVectors) buffer.putFloat(v);
+        os.write(buffer.array());
+    }
+
+    public void loadJsonParams(AssetManager assetManager) throws Exception {
+        loadJsonParams(assetManager, JSON_MODEL_FILE);
+    }
+
+    public void loadJsonParams(AssetManager assetManager, String modelFile) throws Exception {
+        InputStream is = assetManager.open(modelFile);
+        String jsonStr = new String(readFully(is), StandardCharsets.UTF_8);
+        is.close();
+        JSONObject json = new JSONObject(jsonStr);
+
+        // 加载支持向量
+        JSONArray svJson = json.getJSONArray("support_vectors");
+        svCount = svJson.length();
+        dims = FEATURE_DIMS;
+        rawDims = FEATURE_DIMS;
+        projectionType = PROJECTION_NONE;
+        flags = 0;
+        selectedFeatures = null;
+        projectionMatrix = null;
+        supportVectors = new float[svCount * dims];
+        for (int i = 0; i < svCount; i++) {
+            JSONArray vecJson = svJson.getJSONArray(i);
+            if (vecJson.length() != FEATURE_DIMS) {
+                throw new Exception("支持向量维度错误：预期74，实际" + vecJson.length());
+            }
+            for (int j = 0; j < dims; j++) {
+                supportVectors[i * dims + j] = (float) vecJson.getDouble(j);
+            }
+        }
+
+        // 加载对偶系数
+        JSONArray dcJson = json.getJSONArray("dual_coef").getJSONArray(0);
+        dualCoef = new float[dcJson.length()];
+        for (int i = 0; i < dcJson.length(); i++) {
+            dualCoef[i] = (float) dcJson.getDouble(i);
+        }
+
+        // 加载截距项和gamma
+        intercept = (float) json.getJSONArray("intercept").getDouble(0);
+        gamma = (float) json.getDouble("gamma");
+
+        // 加载标准化均值和标准差
+        // 从scaler_params.json中加载mean和var并计算std
+        InputStream scalerIs = assetManager.open(JSON_SCALER_FILE);
+        String scalerJsonStr = new String(readFully(scalerIs), StandardCharsets.UTF_8);
+        scalerIs.close();
+        JSONObject scalerJson = new JSONObject(scalerJsonStr);
+
+        JSONArray meanJson = scalerJson.getJSONArray("mean");
+        if (meanJson.length() != FEATURE_DIMS) {
+            throw new Exception("mean长度错误：预期74，实际" + meanJson.length());
+        }
+        scalerMean = new float[meanJson.length()];
+        for (int i = 0; i < meanJson.length(); i++) {
+            scalerMean[i] = (float) meanJson.getDouble(i);
+        }
+
+        // 直接从scaler_params.json中的scale获取std（标准差）
+        JSONArray stdJson = scalerJson.getJSONArray("scale");
+        // stdJson已通过scale获取，长度应与meanJson一致
+        if (stdJson.length() != FEATURE_DIMS) {
+            throw new Exception("std长度错误：预期74，实际" + stdJson.length());
+        }
+        scalerStd = new float[stdJson.length()];
+        for (int i = 0; i < stdJson.length(); i++) {
+            scalerStd[i] = (float) stdJson.getDouble(i);
+        }
+        // 加载缺失值填充均值（新增）
+        // 从scaler_params.json中加载imputer_mean
+        JSONArray imputerMeanJson = scalerJson.getJSONArray("mean");
+        if (imputerMeanJson.length() != FEATURE_DIMS) {
+            throw new Exception("imputer_mean长度错误：预期74，实际" + imputerMeanJson.length());
+        }
+        imputerMean = new float[imputerMeanJson.length()];
+        for (int i = 0; i < imputerMeanJson.length(); i++) {
+            imputerMean[i] = (float) imputerMeanJson.getDouble(i);
+        }
+        buildDecisionFunction();
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        byte[] buffer = new byte[Math.max(is.available(), 8192)];
+        int total = 0;
+        int n;
+        while ((n = is.read(buffer, total, buffer.length - total)) != -1) {
+            total += n;
+            if (total == buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, total);
+                buffer = grown;
+            }
+        }
+        if (total == buffer.length) return buffer;
+        byte[] result = new byte[total];
+        System.arraycopy(buffer, 0, result, 0, total);
+        return result;
+    }
+
+    // 输入为填充+标准化后的rawDims维特征，模型带投影时先投影到dims维
+    public float infer(float[] features) {
+        checkRawDims(features);
+
+        // 特征已经预处理过，无需再次标准化
+        double decisionScore = decisionFunction.decision(project(features)) + intercept;
+
+        // 添加调试信息
+        android.util.Log.d("OCSVM_DEBUG", "输入特征前5个值: " +
+            features[0] + ", " + features[1] + ", " + features[2] + ", " + features[3] + ", " + features[4]);
+        android.util.Log.d("OCSVM_DEBUG", "决策分数: " + decisionScore + ", gamma: " + gamma + ", intercept: " + intercept);
+
+        return (float) -decisionScore;
+    }
+
+    // 批量推理：一个收集窗口内的所有会话只遍历一次支持向量矩阵
+    public float[] inferBatch(float[][] featuresBatch) {
+        float[][] projected = new float[featuresBatch.length][];
+        for (int q = 0; q < featuresBatch.length; q++) {
+            checkRawDims(featuresBatch[q]);
+            projected[q] = project(featuresBatch[q]);
+        }
+        float[] scores = inferProjectedBatch(projected);
+        android.util.Log.d("OCSVM_DEBUG", "批量推理完成：" + scores.length + "个样本，支持向量" + svCount + "个");
+        return scores;
+    }
+
+    // 输入已位于支持向量空间（dims维）
+    float[] inferProjectedBatch(float[][] projected) {
+        double[] decisions = new double[projected.length];
+        decisionFunction.decisionBatch(projected, decisions);
+        float[] scores = new float[projected.length];
+        for (int q = 0; q < scores.length; q++) {
+            scores[q] = (float) -(decisions[q] + intercept);
+        }
+        return scores;
+    }
+
+    private void checkRawDims(float[] features) {
+        if (features.length != rawDims) {
+            throw new IllegalArgumentException("特征维度错误：预期" + rawDims + "，实际" + features.length);
+        }
+    }
+
+    // 标准化后的特征 → 支持向量空间；无投影时原样返回
+    public float[] project(float[] standardized) {
+        switch (projectionType) {
+            case PROJECTION_SELECT: {
+                float[] out = new float[dims];
+                for (int k = 0; k < dims; k++) {
+                    out[k] = standardized[selectedFeatures[k]];
+                }
+                return out;
+            }
+            case PROJECTION_MATRIX: {
+                float[] out = new float[dims];
+                for (int k = 0; k < dims; k++) {
+                    out[k] = RbfKernelEngine.dot(projectionMatrix, k * rawDims, standardized, 0, rawDims);
+                }
+                return out;
+            }
+            default:
+                return standardized;
+        }
+    }
+
+    // 模型实际用到的原始特征：特征选择为所选下标，投影矩阵为权重非零的列，无投影时为全部特征。
+    // 特征提取可跳过未用到的特征（其取值不影响打分）
+    public boolean[] getRequiredFeatures() {
+        boolean[] required = new boolean[rawDims];
+        switch (projectionType) {
+            case PROJECTION_SELECT:
+                for (int index : selectedFeatures) required[index] = true;
+                break;
+            case PROJECTION_MATRIX:
+                for (int k = 0; k < dims; k++) {
+                    for (int j = 0; j < rawDims; j++) {
+                        if (projectionMatrix[k * rawDims + j] != 0f) required[j] = true;
+                    }
+                }
+                break;
+            default:
+                Arrays.fill(required, true);
+                break;
+        }
+        return required;
+    }
+
+    // 行优先连续存放，第i个支持向量位于 [i * dims, (i + 1) * dims)；非精确打分方式的派生模型返回null
+    public float[] getSupportVectors() {
+        return supportVectors;
+    }
+
+    public int getSupportVectorCount() {
+        return svCount;
+    }
+
+    public int getDims() {
+        return dims;
+    }
+
+    public int getRawDims() {
+        return rawDims;
+    }
+
+    // 输入特征是否在74维时域特征之后追加了频域特征（SpectralFeatureExtractor）
+    public boolean hasSpectralFeatures() {
+        return (flags & FLAG_SPECTRAL_FEATURES) != 0;
+    }
+
+    // 是否声明在融合传感器行的数据上训练
+    public boolean hasFusedSensorRows() {
+        return (flags & FLAG_FUSED_SENSOR_ROWS) != 0;
+    }
+
+    static int rawDimsFor(int flags) {
+        return FEATURE_DIMS + ((flags & FLAG_SPECTRAL_FEATURES) != 0 ? SpectralFeatureExtractor.FEATURE_COUNT : 0);
+    }
+
+    public int getProjectionType() {
+        return projectionType;
+    }
+
+    public ScoringMode getScoringMode() {
+        return scoringMode;
+    }
+
+    public float[] getDualCoef() {
+        return dualCoef;
+    }
+
+    public float getIntercept() {
+        return intercept;
+    }
+
+    public float getGamma() {
+        return gamma;
+    }
+
+    // 新增getter方法
+    public float[] getImputerMean() {
+        return imputerMean;
+    }
+
+    public float[] getScalerMean() {
+        return scalerMean;
+    }
+
+    public float[] getScalerStd() {
+        return scalerStd;
+    }
+
+    // 与本模型训练集参数对应的填充+标准化变换
+    public synchronized FeatureTransformer getFeatureTransformer() {
+        if (featureTransformer == null) {
+            featureTransformer = FeatureTransformer.forModel(this);
+        }
+        return featureTransformer;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.infer;
+
+import android.content.res.AssetManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 按滑动方向路由的模型集合：每个方向（左滑/右滑/上滑/下滑）一个较小的专用模型，另有全局模型兜底。
+// 各模型在首次用到时才加载；缺失或参数不兼容的方向模型会被记为不可用，之后直接使用全局模型。
+// 分方向模型需在全局填充+标准化后的特征空间上训练（与全局模型共用原始特征布局和填充、标准化参数，
+// 训练脚本中的 export_direction_models 按此导出），
+// 且所用原始特征须是全局模型所需特征的子集，这样一个收集窗口内的特征只需按全局参数提取和预处理一次
+public class OCSVMModelBundle {
+    private static final Map<String, String> DIRECTION_MODEL_NAMES = new HashMap<>();
+
+    static {
+        DIRECTION_MODEL_NAMES.put("左滑", "left");
+        DIRECTION_MODEL_NAMES.put("右滑", "right");
+        DIRECTION_MODEL_NAMES.put("上滑", "up");
+        DIRECTION_MODEL_NAMES.put("下滑", "down");
+    }
+
+    private final AssetManager assetManager;
+    private final File cacheDir;
+    private final long assetVersion;
+    private final OCSVMModel.ScoringMode scoringMode;
+    private OCSVMModel globalModel;
+    private final Map<String, OCSVMModel> directionModels = new HashMap<>();
+    private final Map<String, Boolean> directionAvailable = new HashMap<>();
+
+    // assetVersion用于标记由JSON转换的二进制缓存，见OCSVMModel.loadParams
+    public OCSVMModelBundle(AssetManager assetManager, File cacheDir, long assetVersion, OCSVMModel.ScoringMode scoringMode) {
+        this.assetManager = assetManager;
+        this.cacheDir = cacheDir;
+        this.assetVersion = assetVersion;
+        this.scoringMode = scoringMode;
+    }
+
+    // 首次加载的全局模型为精确打分方式，调用方可对比精度后用setGlobalModel替换为派生模型
+    public synchronized OCSVMModel getGlobalModel() throws Exception {
+        if (globalModel == null) {
+            OCSVMModel model = new OCSVMModel();
+            model.loadParams(assetManager, cacheDir, assetVersion);
+            globalModel = model;
+        }
+        return globalModel;
+    }
+
+    public synchronized void setGlobalModel(OCSVMModel model) {
+        globalModel = model;
+    }
+
+    // 返回该方向对应的模型；方向未知或该方向没有可用模型时返回全局模型
+    public synchronized OCSVMModel modelFor(String direction) throws Exception {
+        String modelName = direction != null ? DIRECTION_MODEL_NAMES.get(direction) : null;
+        if (modelName == null || Boolean.FALSE.equals(directionAvailable.get(modelName))) {
+            return getGlobalModel();
+        }
+        OCSVMModel model = directionModels.get(modelName);
+        if (model != null) {
+            return model;
+        }
+
+        OCSVMModel global = getGlobalModel();
+        try {
+            OCSVMModel loaded = new OCSVMModel();
+            loaded.loadParams(assetManager, cacheDir, modelName, assetVersion);
+            // 原始特征布局（维数、是否含频域特征）和填充+标准化参数都须与全局模型一致，否则同一份预处理结果不能直接用于该模型
+            if (loaded.getRawDims() != global.getRawDims()
+                    || loaded.hasSpectralFeatures() != global.hasSpectralFeatures()
+                    || loaded.hasFusedSensorRows() != global.hasFusedSensorRows()) {
+                throw new Exception("原始特征布局与全局模型不一致：" + loaded.getRawDims() + "维，全局" + global.getRawDims() + "维");
+            }
+            if (!Arrays.equals(loaded.getImputerMean(), global.getImputerMean())
+                    || !Arrays.equals(loaded.getScalerMean(), global.getScalerMean())
+                    || !Arrays.equals(loaded.getScalerStd(), global.getScalerStd())) {
+                throw new Exception("填充/标准化参数与全局模型不一致");
+            }
+            boolean[] required = loaded.getRequiredFeatures();
+            boolean[] globalRequired = global.getRequiredFeatures();
+            if (required.length != globalRequired.length) {
+                throw new Exception("所需特征数与全局模型不一致：" + required.length + "，全局" + globalRequired.length);
+            }
+            for (int j = 0; j < required.length; j++) {
+                if (required[j] && !globalRequired[j]) {
+                    throw new Exception("用到了全局模型未声明的特征" + (j + 1));
+                }
+            }
+            if (scoringMode != OCSVMModel.ScoringMode.EXACT) {
+                loaded = loaded.withScoringMode(scoringMode);
+            }
+            directionModels.put(modelName, loaded);
+            directionAvailable.put(modelName, true);
+            android.util.Log.d("OCSVM_BUNDLE", direction + "模型加载成功：支持向量" + loaded.getSupportVectorCount() + "个");
+            return loaded;
+        } catch (Exception e) {
+            directionAvailable.put(modelName, false);
+            android.util.Log.w("OCSVM_BUNDLE", direction + "模型不可用，使用全局模型：" + e.getMessage());
+            return global;
+        }
+    }
+
+    // 加载全部方向模型，返回实际会用于打分的各个模型（全局模型在前，不可用方向回退到的全局模型只出现一次）
+    public List<OCSVMModel> allModels() throws Exception {
+        List<OCSVMModel> models = new ArrayList<>();
+        models.add(getGlobalModel());
+        for (String direction : DIRECTION_MODEL_NAMES.keySet()) {
+            OCSVMModel model = modelFor(direction);
+            if (!models.contains(model)) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    // 预热：加载全部方向模型，并用合成向量（标准化空间的原点，即训练集均值）把每个模型的打分路径各跑rounds轮，
+    // 让核函数代码在首次真实验证前完成JIT编译；返回耗时（毫秒）
+    public long warmUp(int rounds) throws Exception {
+        long start = System.currentTimeMillis();
+        List<OCSVMModel> models = allModels();
+        for (OCSVMModel model : models) {
+            float[] synthetic = new float[model.getRawDims()];
+            float[][] batch = {model.project(synthetic)};
+            for (int r = 0; r < rounds; r++) {
+                model.inferProjectedBatch(batch);
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        android.util.Log.d("OCSVM_BUNDLE", "模型预热完成：" + models.size() + "个模型，每个" + rounds + "轮，耗时" + elapsed + "ms");
+        return elapsed;
+    }
+
+    // 按方向分组后每个模型批量打分一次，结果按输入顺序返回
+    public float[] inferBatch(float[][] features, String[] directions) throws Exception {
+        if (directions == null || directions.length != features.length) {
+            return getGlobalModel().inferBatch(features);
+        }
+        Map<OCSVMModel, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < features.length; i++) {
+            OCSVMModel model = modelFor(directions[i]);
+            List<Integer> group = groups.get(model);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(model, group);
+            }
+            group.add(i);
+        }
+
+        float[] scores = new float[features.length];
+        for (Map.Entry<OCSVMModel, List<Integer>> entry : groups.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            float[][] batch = new float[indices.size()][];
+            for (int k = 0; k < batch.length; k++) {
+                batch[k] = features[indices.get(k)];
+            }
+            float[] groupScores = entry.getKey().inferBatch(batch);
+            for (int k = 0; k < batch.length; k++) {
+                scores[indices.get(k)] = groupScores[k];
+            }
+        }
+        return scores;
+    }
+}
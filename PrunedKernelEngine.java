@@ -0,0 +1,174 @@
+package com.example.infer;
+
+import java.util.Arrays;
+
+// 基于聚类中心+半径的支持向量剪枝打分
+// 模型加载时把支持向量聚成若干簇（k-means），记录每簇中心、半径和 sum|α|，簇内成员连续存放。
+// 查询点x到簇内任一成员的距离不小于 max(0, |x-c| - r)，因此整簇贡献不超过
+// sum|α| · exp(-γ·(|x-c| - r)²)；在累计跳过量不超过epsilon的前提下跳过这些簇，
+// 打分误差上界即为epsilon（实际跳过量可通过decision(x, errorBoundOut)取得）
+public class PrunedKernelEngine implements DecisionFunction {
+    private static final int KMEANS_ITERATIONS = 8;
+
+    private final float[] supportVectors; // 按簇重排后的支持向量，行优先
+    private final float[] dualCoef;
+    private final float[] centroids;      // clusterCount * dims
+    private final float[] radius;
+    private final float[] clusterAbsCoef;
+    private final int[] clusterStart;     // clusterCount + 1
+    private final int clusterCount;
+    private final int dims;
+    private final float gamma;
+    private final double epsilon;
+
+    public PrunedKernelEngine(float[] supportVectors, int svCount, int dims, float[] dualCoef,
+                              float gamma, double epsilon) {
+        this.dims = dims;
+        this.gamma = gamma;
+        this.epsilon = epsilon;
+
+        int k = Math.max(1, Math.min(svCount, (int) Math.round(Math.sqrt(svCount))));
+        float[] centers = initCenters(supportVectors, svCount, dims, k);
+        int[] assignment = new int[svCount];
+        for (int iter = 0; iter < KMEANS_ITERATIONS; iter++) {
+            assign(supportVectors, svCount, dims, centers, k, assignment);
+            recomputeCenters(supportVectors, svCount, dims, centers, k, assignment);
+        }
+        assign(supportVectors, svCount, dims, centers, k, assignment);
+
+        // 按簇重排成员，空簇被压缩掉
+        int[] counts = new int[k];
+        for (int a : assignment) counts[a]++;
+        int[] remap = new int[k];
+        int nonEmpty = 0;
+        for (int c = 0; c < k; c++) {
+            remap[c] = counts[c] > 0 ? nonEmpty++ : -1;
+        }
+        this.clusterCount = nonEmpty;
+        this.clusterStart = new int[nonEmpty + 1];
+        for (int c = 0; c < k; c++) {
+            if (remap[c] >= 0) clusterStart[remap[c] + 1] = counts[c];
+        }
+        for (int c = 0; c < nonEmpty; c++) clusterStart[c + 1] += clusterStart[c];
+
+        this.supportVectors = new float[svCount * dims];
+        this.dualCoef = new float[svCount];
+        this.centroids = new float[nonEmpty * dims];
+        this.radius = new float[nonEmpty];
+        this.clusterAbsCoef = new float[nonEmpty];
+        int[] fill = Arrays.copyOf(clusterStart, nonEmpty);
+        for (int i = 0; i < svCount; i++) {
+            int c = remap[assignment[i]];
+            int slot = fill[c]++;
+            System.arraycopy(supportVectors, i * dims, this.supportVectors, slot * dims, dims);
+            this.dualCoef[slot] = dualCoef[i];
+        }
+        for (int c = 0, oldC = 0; oldC < k; oldC++) {
+            if (remap[oldC] < 0) continue;
+            System.arraycopy(centers, oldC * dims, centroids, c * dims, dims);
+            c++;
+        }
+        for (int c = 0; c < nonEmpty; c++) {
+            float maxDistSq = 0f;
+            double absSum = 0;
+            for (int i = clusterStart[c]; i < clusterStart[c + 1]; i++) {
+                maxDistSq = Math.max(maxDistSq, RbfKernelEngine.distSq(this.supportVectors, i * dims, centroids, c * dims, dims));
+                absSum += Math.abs(this.dualCoef[i]);
+            }
+            // 半径略放大，抵消float舍入，保证下界成立
+            radius[c] = (float) Math.sqrt(maxDistSq) * 1.0001f + 1e-6f;
+            clusterAbsCoef[c] = (float) absSum;
+        }
+    }
+
+    @Override
+    public double decision(float[] x) {
+        return decision(x, null);
+    }
+
+    // errorBoundOut非空时写入本次被跳过簇的贡献上界之和（<= epsilon）
+    public double decision(float[] x, double[] errorBoundOut) {
+        double sum = 0;
+        double skipped = 0;
+        for (int c = 0; c < clusterCount; c++) {
+            double gap = Math.sqrt(RbfKernelEngine.distSq(x, 0, centroids, c * dims, dims)) - radius[c];
+            if (gap > 0) {
+                double bound = clusterAbsCoef[c] * Math.exp(-gamma * gap * gap);
+                if (skipped + bound <= epsilon) {
+                    skipped += bound;
+                    continue;
+                }
+            }
+            for (int i = clusterStart[c], offset = i * dims; i < clusterStart[c + 1]; i++, offset += dims) {
+                sum += dualCoef[i] * Math.exp(-gamma * RbfKernelEngine.distSq(x, 0, supportVectors, offset, dims));
+            }
+        }
+        if (errorBoundOut != null) {
+            errorBoundOut[0] = skipped;
+        }
+        return sum;
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    // 最远点初始化：确定性，且簇中心分散
+    private static float[] initCenters(float[] sv, int n, int dims, int k) {
+        float[] centers = new float[k * dims];
+        float[] nearest = new float[n];
+        Arrays.fill(nearest, Float.MAX_VALUE);
+        int next = 0;
+        for (int c = 0; c < k; c++) {
+            System.arraycopy(sv, next * dims, centers, c * dims, dims);
+            int farthest = 0;
+            float farthestDist = -1f;
+            for (int i = 0; i < n; i++) {
+                nearest[i] = Math.min(nearest[i], RbfKernelEngine.distSq(sv, i * dims, centers, c * dims, dims));
+                if (nearest[i] > farthestDist) {
+                    farthestDist = nearest[i];
+                    farthest = i;
+                }
+            }
+            next = farthest;
+        }
+        return centers;
+    }
+
+    private static void assign(float[] sv, int n, int dims, float[] centers, int k, int[] assignment) {
+        for (int i = 0; i < n; i++) {
+            int best = 0;
+            float bestDist = Float.MAX_VALUE;
+            for (int c = 0; c < k; c++) {
+                float d = RbfKernelEngine.distSq(sv, i * dims, centers, c * dims, dims);
+                if (d < bestDist) {
+                    bestDist = d;
+                    best = c;
+                }
+            }
+            assignment[i] = best;
+        }
+    }
+
+    private static void recomputeCenters(float[] sv, int n, int dims, float[] centers, int k, int[] assignment) {
+        double[] sums = new double[k * dims];
+        int[] counts = new int[k];
+        for (int i = 0; i < n; i++) {
+            int c = assignment[i];
+            counts[c]++;
+            for (int j = 0; j < dims; j++) {
+                sums[c * dims + j] += sv[i * dims + j];
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            if (counts[c] == 0) continue; // 空簇保留原中心
+            for (int j = 0; j < dims; j++) {
+                centers[c * dims + j] = (float) (sums[c * dims + j] / counts[c]);
+            }
+        }
+    }
+}
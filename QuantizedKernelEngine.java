@@ -0,0 +1,207 @@
+package com.example.infer;
+
+// 量化存储的RBF核打分
+// INT8：每个特征按支持向量在该维（已标准化）的取值范围计算 scale/offset，存为1字节，内存为float的1/4。
+//   反量化值为 center_j + scale_j·b（b ∈ [-128, 127]，center为该维量化区间的中点），平方距离展开为
+//   Σ(x_j - center_j)² - 2·Σ(x_j - center_j)·scale_j·b + Σ(scale_j·b)²：第一项每次查询算一次，第三项构建时按支持向量预计算，
+//   内层只剩查询权重与INT8码值的点积，不再逐元素反量化。以区间中点为基准使各项量级接近距离本身，float相消误差远小于量化误差；
+// FP16：存为IEEE半精度，内存为float的1/2，打分时查表（65536项）转换为float。
+// 核值使用 FastExp 近似，误差有界
+public class QuantizedKernelEngine implements DecisionFunction {
+    public enum Precision {
+        INT8,
+        FP16
+    }
+
+    private final Precision precision;
+    private final byte[] int8Values;   // INT8模式：svCount * dims
+    private final short[] fp16Values;  // FP16模式：svCount * dims
+    private final float[] scale;       // INT8模式：每维量化步长
+    private final float[] center;      // INT8模式：每维量化区间中点（码值0对应的值）
+    private final float[] svQuantNormSq; // INT8模式：每个支持向量的 Σ(scale_j·b_j)²
+    private final float[] dualCoef;
+    private final int svCount;
+    private final int dims;
+    private final float gamma;
+
+    public QuantizedKernelEngine(float[] supportVectors, int svCount, int dims, float[] dualCoef,
+                                 float gamma, Precision precision) {
+        this.precision = precision;
+        this.svCount = svCount;
+        this.dims = dims;
+        this.gamma = gamma;
+        this.dualCoef = dualCoef.clone();
+
+        if (precision == Precision.INT8) {
+            scale = new float[dims];
+            float[] offset = new float[dims];
+            for (int j = 0; j < dims; j++) {
+                float min = Float.MAX_VALUE;
+                float max = -Float.MAX_VALUE;
+                for (int i = 0; i < svCount; i++) {
+                    float v = supportVectors[i * dims + j];
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                if (svCount == 0) {
+                    min = 0f;
+                    max = 0f;
+                }
+                offset[j] = min;
+                scale[j] = max > min ? (max - min) / 255f : 1f;
+            }
+            center = new float[dims];
+            for (int j = 0; j < dims; j++) {
+                center[j] = offset[j] + 128f * scale[j];
+            }
+            int8Values = new byte[svCount * dims];
+            svQuantNormSq = new float[svCount];
+            for (int i = 0; i < svCount; i++) {
+                double normSq = 0;
+                for (int j = 0; j < dims; j++) {
+                    int q = Math.round((supportVectors[i * dims + j] - offset[j]) / scale[j]);
+                    byte b = (byte) (Math.max(0, Math.min(255, q)) - 128);
+                    int8Values[i * dims + j] = b;
+                    double v = (double) scale[j] * b;
+                    normSq += v * v;
+                }
+                svQuantNormSq[i] = (float) normSq;
+            }
+            fp16Values = null;
+        } else {
+            fp16Values = new short[svCount * dims];
+            for (int i = 0; i < fp16Values.length; i++) {
+                fp16Values[i] = toHalf(supportVectors[i]);
+            }
+            int8Values = null;
+            scale = null;
+            center = null;
+            svQuantNormSq = null;
+        }
+    }
+
+    @Override
+    public double decision(float[] x) {
+        return precision == Precision.INT8 ? decisionInt8(x) : decisionFp16(x);
+    }
+
+    private double decisionInt8(float[] x) {
+        float[] weight = new float[dims]; // (x_j - center_j)·scale_j
+        float xNormSq = 0f;
+        for (int j = 0; j < dims; j++) {
+            float u = x[j] - center[j];
+            weight[j] = u * scale[j];
+            xNormSq += u * u;
+        }
+        double sum = 0;
+        for (int i = 0, base = 0; i < svCount; i++, base += dims) {
+            float distSq = xNormSq + svQuantNormSq[i] - 2f * dotInt8(weight, int8Values, base, dims);
+            sum += dualCoef[i] * FastExp.expNeg(gamma * Math.max(distSq, 0f));
+        }
+        return sum;
+    }
+
+    private double decisionFp16(float[] x) {
+        float[] table = HalfTable.VALUES;
+        double sum = 0;
+        for (int i = 0, base = 0; i < svCount; i++, base += dims) {
+            float s0 = 0f, s1 = 0f;
+            int j = 0;
+            for (; j + 1 < dims; j += 2) {
+                float d0 = x[j] - table[fp16Values[base + j] & 0xffff];
+                float d1 = x[j + 1] - table[fp16Values[base + j + 1] & 0xffff];
+                s0 += d0 * d0;
+                s1 += d1 * d1;
+            }
+            for (; j < dims; j++) {
+                float d = x[j] - table[fp16Values[base + j] & 0xffff];
+                s0 += d * d;
+            }
+            sum += dualCoef[i] * FastExp.expNeg(gamma * (s0 + s1));
+        }
+        return sum;
+    }
+
+    // 查询权重与一个支持向量的INT8码值的点积：与RbfKernelEngine.dot相同的4路累加器展开
+    private static float dotInt8(float[] weight, byte[] codes, int base, int len) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int j = 0;
+        for (; j + 3 < len; j += 4) {
+            s0 += weight[j] * codes[base + j];
+            s1 += weight[j + 1] * codes[base + j + 1];
+            s2 += weight[j + 2] * codes[base + j + 2];
+            s3 += weight[j + 3] * codes[base + j + 3];
+        }
+        for (; j < len; j++) {
+            s0 += weight[j] * codes[base + j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // 支持向量矩阵占用字节数（不含对偶系数）
+    public long getStorageBytes() {
+        return precision == Precision.INT8 ? int8Values.length + 8L * dims + 4L * svCount : 2L * fp16Values.length;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // 半精度 → float 的转换表，首次使用FP16打分时才创建（256KB）
+    private static final class HalfTable {
+        static final float[] VALUES = new float[1 << 16];
+
+        static {
+            for (int h = 0; h < VALUES.length; h++) {
+                VALUES[h] = toFloat((short) h);
+            }
+        }
+    }
+
+    // float → IEEE 754 半精度（就近舍入，恰在中间时取尾数为偶数的一侧；溢出为无穷，过小为0或非规格化数）
+    static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exp = ((bits >>> 23) & 0xff) - 127 + 15;
+        int mantissa = bits & 0x7fffff;
+        if (((bits >>> 23) & 0xff) == 0xff) {
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exp >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        if (exp <= 0) {
+            if (exp < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            int shift = 14 - exp;
+            int half = mantissa >> shift;
+            int rest = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rest > halfway || (rest == halfway && (half & 1) != 0)) half++;
+            return (short) (sign | half);
+        }
+        int half = sign | (exp << 10) | (mantissa >> 13);
+        int rest = mantissa & 0x1fff;
+        if (rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0)) half++; // 进位可自然溢出到指数位
+        return (short) half;
+    }
+
+    static float toFloat(short half) {
+        int h = half & 0xffff;
+        int sign = (h & 0x8000) << 16;
+        int exp = (h >>> 10) & 0x1f;
+        int mantissa = h & 0x3ff;
+        if (exp == 0) {
+            if (mantissa == 0) return Float.intBitsToFloat(sign);
+            // 非规格化数
+            float v = mantissa * (1f / (1 << 24));
+            return sign != 0 ? -v : v;
+        }
+        if (exp == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exp - 15 + 127) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.infer;
+
+import java.util.Random;
+
+// 随机傅里叶特征（RFF）近似打分
+// RBF核 exp(-γ·|x-y|²) ≈ z(x)·z(y)，z(x) = sqrt(2/D)·cos(Wx + b)，W~N(0, 2γ)，b~U[0, 2π)
+// 决策函数 sum(α_i·K(x, sv_i)) ≈ w·z(x)，w = sum(α_i·z(sv_i)) 在构建时一次算好，
+// 打分成本固定为 O(D·dims)，与支持向量数量无关
+public class RandomFourierFeatures implements DecisionFunction {
+    private final float[] projection; // D * dims，行优先
+    private final float[] phase;
+    private final float[] weights;    // sum(α_i·cos(W·sv_i + b))·(2/D)：z(sv_i)与z(x)各自的 sqrt(2/D) 都已乘入，打分时直接乘cos(Wx + b)
+    private final int featureDim;
+    private final int dims;
+
+    public RandomFourierFeatures(float[] supportVectors, int svCount, int dims, float[] dualCoef,
+                                 float gamma, int featureDim, long seed) {
+        if (featureDim <= 0) {
+            throw new IllegalArgumentException("随机特征维度必须大于0：" + featureDim);
+        }
+        this.featureDim = featureDim;
+        this.dims = dims;
+        this.projection = new float[featureDim * dims];
+        this.phase = new float[featureDim];
+        this.weights = new float[featureDim];
+
+        Random random = new Random(seed);
+        double std = Math.sqrt(2.0 * gamma);
+        for (int i = 0; i < projection.length; i++) {
+            projection[i] = (float) (random.nextGaussian() * std);
+        }
+        for (int k = 0; k < featureDim; k++) {
+            phase[k] = (float) (random.nextDouble() * 2 * Math.PI);
+        }
+
+        double scale = Math.sqrt(2.0 / featureDim);
+        double[] w = new double[featureDim];
+        for (int i = 0, offset = 0; i < svCount; i++, offset += dims) {
+            double coef = dualCoef[i] * scale;
+            for (int k = 0, wOff = 0; k < featureDim; k++, wOff += dims) {
+                float arg = RbfKernelEngine.dot(projection, wOff, supportVectors, offset, dims) + phase[k];
+                w[k] += coef * Math.cos(arg);
+            }
+        }
+        for (int k = 0; k < featureDim; k++) {
+            weights[k] = (float) (w[k] * scale);
+        }
+    }
+
+    @Override
+    public double decision(float[] x) {
+        double sum = 0;
+        for (int k = 0, wOff = 0; k < featureDim; k++, wOff += dims) {
+            float arg = RbfKernelEngine.dot(projection, wOff, x, 0, dims) + phase[k];
+            sum += weights[k] * Math.cos(arg);
+        }
+        return sum;
+    }
+
+    public int getFeatureDim() {
+        return featureDim;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.infer;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 多路归并原始数据：触摸行和传感器行各自按到达顺序（即时间顺序）追加在独立的列式缓冲区里，
+// 收集结束后对各缓冲区的快照一次k路归并得到按时间排序的数据，同一趟里完成去重（与上一条输出相同时间且坐标差<0.1视为重复）
+// 和按动作ID分组（首个按下行为起点、最后一个抬起行为终点），输出校正后的[tstart, tend]区间。
+// 输出的行在此时才生成对象（采集过程中不分配），供会话切分、特征提取和CSV导出使用。
+// 时间相同的行按来源顺序输出（sources中靠前的先输出）。各来源内若有时间回退（系统时钟被调整），
+// 归并结果只在回退处局部失序，不影响其余数据
+public final class RawDataMerger {
+
+    public static class Result {
+        public final List<MainActivity.AllDataModel> samples;
+        public final List<long[]> intervals;
+        public final int duplicateCount;
+
+        Result(List<MainActivity.AllDataModel> samples, List<long[]> intervals, int duplicateCount) {
+            this.samples = samples;
+            this.intervals = intervals;
+            this.duplicateCount = duplicateCount;
+        }
+    }
+
+    private RawDataMerger() {}
+
+    public static Result merge(List<RawSampleBuffer.View> sources) {
+        int k = sources.size();
+        int[] heads = new int[k];
+        int total = 0;
+        for (RawSampleBuffer.View source : sources) {
+            total += source.size();
+        }
+
+        List<MainActivity.AllDataModel> merged = new ArrayList<>(total);
+        Map<Integer, long[]> actionIntervals = new HashMap<>();
+        RawSampleBuffer prevBuffer = null;
+        int prevRow = -1;
+        int duplicateCount = 0;
+        // 来源数很少（触摸+传感器），每步线性比较各路队首即可
+        for (int n = 0; n < total; n++) {
+            int pick = -1;
+            long pickTime = Long.MAX_VALUE;
+            for (int s = 0; s < k; s++) {
+                if (heads[s] < sources.get(s).size()) {
+                    long time = sources.get(s).time(heads[s]);
+                    if (pick < 0 || time < pickTime) {
+                        pick = s;
+                        pickTime = time;
+                    }
+                }
+            }
+            RawSampleBuffer.View view = sources.get(pick);
+            RawSampleBuffer buffer = view.buffer();
+            int row = view.row(heads[pick]++);
+
+            if (prevBuffer != null && buffer.time[row] == prevBuffer.time[prevRow]
+                    && Math.abs(buffer.x[row] - prevBuffer.x[prevRow]) < 0.1f
+                    && Math.abs(buffer.y[row] - prevBuffer.y[prevRow]) < 0.1f) {
+                duplicateCount++;
+                continue;
+            }
+            merged.add(buffer.toModel(row));
+            prevBuffer = buffer;
+            prevRow = row;
+
+            int action = buffer.actionId[row];
+            if (action == 0) continue;
+            byte type = buffer.touchType[row];
+            if (type == RawSampleBuffer.TOUCH_PRESS || type == RawSampleBuffer.TOUCH_RELEASE) {
+                long[] interval = actionIntervals.get(action);
+                if (interval == null) {
+                    interval = new long[2];
+                    actionIntervals.put(action, interval);
+                }
+                if (type == RawSampleBuffer.TOUCH_PRESS) {
+                    if (interval[0] == 0) interval[0] = buffer.time[row];
+                } else {
+                    interval[1] = buffer.time[row];
+                }
+            }
+        }
+
+        List<long[]> intervals = new ArrayList<>(actionIntervals.size());
+        for (Map.Entry<Integer, long[]> entry : actionIntervals.entrySet()) {
+            long[] interval = entry.getValue();
+            if (interval[0] == 0 || interval[1] == 0) continue;
+            intervals.add(interval);
+            Log.d("IntervalFix", "动作ID=" + entry.getKey() + " 校正区间：tstart=" + interval[0] + ", tend=" + interval[1]);
+        }
+        Collections.sort(intervals, (a, b) -> Long.compare(a[0], b[0]));
+        return new Result(merged, intervals, duplicateCount);
+    }
+}
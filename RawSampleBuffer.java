@@ -0,0 +1,213 @@
+package com.example.infer;
+
+import android.util.Log;
+
+// 采集期间的原始数据缓冲：按列存放（时间戳long[]，坐标/压力/面积和9个传感器轴各一列float[]，动作ID int[]），
+// 触摸类型和滑动方向编码为byte，追加一行和写入传感器读数都只写数组元素，采集过程中不分配对象。
+// 容量固定，写满后覆盖最早的行并计数（10秒窗口在默认容量内不会发生）。
+// 行号为槽位下标；view()取当前内容的只读快照，供收集结束后的归并和后台线程按时间窗读取。
+// 写入须在调用方的锁内进行；快照在锁内创建后，其范围内的行不再被改写（除非缓冲区绕回覆盖），可交给其他线程读取
+public class RawSampleBuffer {
+    private static final String TAG = "RawSampleBuffer";
+
+    // 触摸类型编码，与TouchSessionizer的类型位一致，无触摸为0
+    public static final byte TOUCH_NONE = 0;
+    public static final byte TOUCH_PRESS = (byte) TouchSessionizer.TYPE_PRESS;
+    public static final byte TOUCH_SLIDE = (byte) TouchSessionizer.TYPE_SLIDE;
+    public static final byte TOUCH_RELEASE = (byte) TouchSessionizer.TYPE_RELEASE;
+
+    // 滑动方向编码，下标即编码
+    private static final String[] DIRECTION_NAMES = {"无", "左滑", "右滑", "上滑", "下滑", "无效滑动"};
+    public static final byte DIRECTION_NONE = 0;
+
+    public static final int SENSOR_AXES = TouchFeatureExtractor.SENSOR_AXES;
+
+    private final int capacity;
+    final long[] time;
+    final float[] x;
+    final float[] y;
+    final float[] pressure;
+    final float[] size;
+    final int[] actionId;
+    final byte[] touchType;
+    final byte[] direction;
+    final float[][] sensors = new float[SENSOR_AXES][]; // 加速度XYZ、角速度XYZ、磁力计XYZ
+
+    private int head;  // 最早一行的槽位
+    private int count;
+    private int overwritten;
+
+    public RawSampleBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓冲区容量须为正数：" + capacity);
+        }
+        this.capacity = capacity;
+        time = new long[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        pressure = new float[capacity];
+        size = new float[capacity];
+        actionId = new int[capacity];
+        touchType = new byte[capacity];
+        direction = new byte[capacity];
+        for (int k = 0; k < SENSOR_AXES; k++) {
+            sensors[k] = new float[capacity];
+        }
+    }
+
+    // 追加一行（传感器读数为0），返回槽位
+    public int append(byte type, byte dir, float xValue, float yValue, float pressureValue, float sizeValue,
+                      long timeValue, int action) {
+        int row;
+        if (count == capacity) {
+            row = head;
+            head = next(head);
+            if (overwritten++ == 0) {
+                Log.w(TAG, "缓冲区已满（" + capacity + "行），开始覆盖最早的数据");
+            }
+        } else {
+            row = slot(count);
+            count++;
+        }
+        touchType[row] = type;
+        direction[row] = dir;
+        x[row] = xValue;
+        y[row] = yValue;
+        pressure[row] = pressureValue;
+        size[row] = sizeValue;
+        time[row] = timeValue;
+        actionId[row] = action;
+        for (int k = 0; k < SENSOR_AXES; k++) {
+            sensors[k][row] = 0f;
+        }
+        return row;
+    }
+
+    // 原地写入一行的9个传感器读数
+    public void setSensors(int row, float accX, float accY, float accZ,
+                           float gyroX, float gyroY, float gyroZ,
+                           float magX, float magY, float magZ) {
+        sensors[0][row] = accX;
+        sensors[1][row] = accY;
+        sensors[2][row] = accZ;
+        sensors[3][row] = gyroX;
+        sensors[4][row] = gyroY;
+        sensors[5][row] = gyroZ;
+        sensors[6][row] = magX;
+        sensors[7][row] = magY;
+        sensors[8][row] = magZ;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // 最新一行的槽位，缓冲区为空时为-1
+    public int lastRow() {
+        return count == 0 ? -1 : slot(count - 1);
+    }
+
+    public int getOverwrittenCount() {
+        return overwritten;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        overwritten = 0;
+    }
+
+    public View view() {
+        return new View(this, head, count);
+    }
+
+    // 按槽位生成对象形式的一行（收集结束后导出时使用）
+    public MainActivity.AllDataModel toModel(int row) {
+        return new MainActivity.AllDataModel(
+                touchTypeName(touchType[row]), directionName(direction[row]),
+                x[row], y[row], pressure[row], size[row],
+                time[row], actionId[row],
+                sensors[0][row], sensors[1][row], sensors[2][row],
+                sensors[3][row], sensors[4][row], sensors[5][row],
+                sensors[6][row], sensors[7][row], sensors[8][row]);
+    }
+
+    private int slot(int index) {
+        int row = head + index;
+        return row >= capacity ? row - capacity : row;
+    }
+
+    private int next(int row) {
+        return row + 1 == capacity ? 0 : row + 1;
+    }
+
+    public static String touchTypeName(byte type) {
+        switch (type) {
+            case TOUCH_PRESS:
+                return "按下";
+            case TOUCH_SLIDE:
+                return "滑动中";
+            case TOUCH_RELEASE:
+                return "抬起";
+            default:
+                return "无触摸";
+        }
+    }
+
+    public static byte encodeDirection(String name) {
+        for (int i = 0; i < DIRECTION_NAMES.length; i++) {
+            if (DIRECTION_NAMES[i].equals(name)) return (byte) i;
+        }
+        return DIRECTION_NONE;
+    }
+
+    public static String directionName(byte dir) {
+        return dir >= 0 && dir < DIRECTION_NAMES.length ? DIRECTION_NAMES[dir] : DIRECTION_NAMES[DIRECTION_NONE];
+    }
+
+    // 缓冲区某一时刻的只读快照：第i行（0为最早）映射到槽位，行按追加顺序排列
+    public static final class View {
+        private final RawSampleBuffer buffer;
+        private final int head;
+        private final int count;
+
+        View(RawSampleBuffer buffer, int head, int count) {
+            this.buffer = buffer;
+            this.head = head;
+            this.count = count;
+        }
+
+        public RawSampleBuffer buffer() {
+            return buffer;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int row(int i) {
+            int row = head + i;
+            return row >= buffer.capacity ? row - buffer.capacity : row;
+        }
+
+        public long time(int i) {
+            return buffer.time[row(i)];
+        }
+
+        // 第一个时间 >= time 的行（各来源按到达顺序追加，时间基本有序）
+        public int lowerBound(long timeValue) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (time(mid) < timeValue) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.infer;
+
+import java.util.Arrays;
+import java.util.List;
+
+// 支持向量约简（Reduced Set）压缩工具
+// 从原支持向量中贪心挑选不超过预算个数的子集Z，并重新求解系数β，使
+// sum(β_k·φ(z_k)) 在核空间中最小二乘逼近 sum(α_i·φ(x_i))，截距保持不变。
+// 挑选过程即带预拟合的核匹配追踪：维护核矩阵的部分主元Cholesky分解G，
+// 每步选取使残差核范数下降最多的支持向量（r_j² / d_j 最大）。
+// 需要 O(n·budget) 的中间内存，适合在模型导出/首次加载时离线执行，不在推理路径上调用。
+public class ReducedSetCompressor {
+    private static final double PIVOT_EPS = 1e-10;
+
+    private final int svBudget;
+
+    public ReducedSetCompressor(int svBudget) {
+        if (svBudget <= 0) {
+            throw new IllegalArgumentException("支持向量预算必须大于0：" + svBudget);
+        }
+        this.svBudget = svBudget;
+    }
+
+    public OCSVMModel compress(OCSVMModel model) {
+        int n = model.getSupportVectorCount();
+        int dims = model.getDims();
+        if (n <= svBudget) {
+            return model;
+        }
+        float[] sv = model.getSupportVectors();
+        float[] alpha = model.getDualCoef();
+        float gamma = model.getGamma();
+
+        // 残差函数在各支持向量处的取值，初始为原决策函数值 f(x_j)
+        double[] residual = new double[n];
+        float[][] rows = new float[n][];
+        for (int j = 0; j < n; j++) {
+            rows[j] = Arrays.copyOfRange(sv, j * dims, (j + 1) * dims);
+        }
+        new RbfKernelEngine(sv, n, dims, alpha, gamma).decisionBatch(rows, residual);
+
+        // 残差对角元（Schur补），RBF核自身核值为1
+        double[] diag = new double[n];
+        Arrays.fill(diag, 1.0);
+
+        int m = svBudget;
+        double[][] g = new double[n][m]; // 部分Cholesky因子，g[j][k]
+        int[] pivots = new int[m];
+        double[] y = new double[m];
+        boolean[] selected = new boolean[n];
+        double[] kernelColumn = new double[n];
+
+        int chosen = 0;
+        for (; chosen < m; chosen++) {
+            int p = -1;
+            double best = -1;
+            for (int j = 0; j < n; j++) {
+                if (selected[j] || diag[j] <= PIVOT_EPS) continue;
+                double gain = residual[j] * residual[j] / diag[j];
+                if (gain > best) {
+                    best = gain;
+                    p = j;
+                }
+            }
+            if (p < 0) break;
+
+            selected[p] = true;
+            pivots[chosen] = p;
+            double pivotSqrt = Math.sqrt(diag[p]);
+
+            int pOff = p * dims;
+            float pNorm = RbfKernelEngine.dot(sv, pOff, sv, pOff, dims);
+            for (int j = 0; j < n; j++) {
+                int jOff = j * dims;
+                float distSq = RbfKernelEngine.dot(sv, jOff, sv, jOff, dims) + pNorm
+                        - 2f * RbfKernelEngine.dot(sv, jOff, sv, pOff, dims);
+                kernelColumn[j] = Math.exp(-gamma * Math.max(distSq, 0f));
+            }
+
+            double yk = residual[p] / pivotSqrt;
+            y[chosen] = yk;
+            double[] gp = g[p];
+            for (int j = 0; j < n; j++) {
+                double[] gj = g[j];
+                double v = kernelColumn[j];
+                for (int l = 0; l < chosen; l++) {
+                    v -= gj[l] * gp[l];
+                }
+                v /= pivotSqrt;
+                gj[chosen] = v;
+                diag[j] -= v * v;
+                residual[j] -= v * yk;
+            }
+        }
+
+        // 回代求解 L^T·β = y，L为G在所选支持向量行上的下三角部分
+        double[] beta = new double[chosen];
+        for (int k = chosen - 1; k >= 0; k--) {
+            double v = y[k];
+            for (int l = k + 1; l < chosen; l++) {
+                v -= g[pivots[l]][k] * beta[l];
+            }
+            beta[k] = v / g[pivots[k]][k];
+        }
+
+        float[] newSv = new float[chosen * dims];
+        float[] newCoef = new float[chosen];
+        for (int k = 0; k < chosen; k++) {
+            System.arraycopy(sv, pivots[k] * dims, newSv, k * dims, dims);
+            newCoef[k] = (float) beta[k];
+        }
+        android.util.Log.d("ReducedSet", "支持向量压缩：" + n + " → " + chosen + "（预算" + svBudget + "）");
+        return model.withSupportVectors(newSv, chosen, newCoef);
+    }
+
+    // 在留出特征集（已填充+标准化）上报告压缩前后的最大决策分数偏差
+    public static ScoreDeviationReport report(OCSVMModel original, OCSVMModel compressed,
+                                              List<float[]> heldOutFeatures, float threshold) {
+        return ScoreDeviationReport.compare(
+                "约简集（" + original.getSupportVectorCount() + "→" + compressed.getSupportVectorCount() + "）",
+                original, compressed, heldOutFeatures, threshold);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.infer;
+
+import java.util.Arrays;
+
+// 重放录制的传感器读数的SensorSource：用于离线复现一次采集（如原始数据CSV中的读数），或在没有传感器的环境中驱动重采样和队列合并。
+// 读数先用add按采样时刻写入，start时整体平移到当前时间（第一条读数即开始时刻，平移量见getTimeShiftNanos），
+// 在专用的重放线程上按时间顺序回调。模拟硬件FIFO的批量上报：maxReportLatencyNanos > 0时，
+// 读数在到期后攒到下一个批次时刻（上次交付后maxReportLatencyNanos）才一起交付，flush立即交付已到期的读数；为0时到期即交付
+public class ReplaySensorSource implements SensorSource {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final long maxReportLatencyNanos;
+    private final boolean[] present = new boolean[3];
+    private int[] sensors = new int[INITIAL_CAPACITY];
+    private long[] times = new long[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY * 3];
+    private int count;
+
+    private final Object lock = new Object();
+    private Thread replayThread;
+    private volatile Callback callback;
+    private volatile long timeShiftNanos;
+    private boolean flushRequested;
+
+    public ReplaySensorSource(long maxReportLatencyNanos) {
+        this.maxReportLatencyNanos = Math.max(0, maxReportLatencyNanos);
+    }
+
+    // 写入一条录制的读数；须在start之前调用，同一传感器的时间戳须单调递增
+    public synchronized void add(int sensor, long timeNanos, float x, float y, float z) {
+        if (replayThread != null) {
+            throw new IllegalStateException("重放开始后不能再写入读数");
+        }
+        if (count == times.length) {
+            sensors = Arrays.copyOf(sensors, count * 2);
+            times = Arrays.copyOf(times, count * 2);
+            values = Arrays.copyOf(values, count * 6);
+        }
+        sensors[count] = sensor;
+        times[count] = timeNanos;
+        values[count * 3] = x;
+        values[count * 3 + 1] = y;
+        values[count * 3 + 2] = z;
+        present[sensor] = true;
+        count++;
+    }
+
+    // 回调的时间戳 = 录制时间戳 + 平移量；start之前为0
+    public long getTimeShiftNanos() {
+        return timeShiftNanos;
+    }
+
+    @Override
+    public boolean has(int sensor) {
+        return present[sensor];
+    }
+
+    // 采样率由录制决定，sampleRateHz不起作用
+    @Override
+    public synchronized void start(int sampleRateHz, Callback callback) {
+        if (replayThread != null) return;
+        int[] order = timeOrder();
+        long wallBase = System.currentTimeMillis() * 1_000_000L;
+        long nanoBase = System.nanoTime();
+        timeShiftNanos = count > 0 ? wallBase - times[order[0]] : 0;
+        this.callback = callback;
+        replayThread = new Thread(() -> replay(order, wallBase, nanoBase), "SensorReplay");
+        replayThread.start();
+    }
+
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            flushRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    // 不等待重放线程退出；返回后不再有新的回调开始
+    @Override
+    public synchronized void stop() {
+        if (replayThread == null) return;
+        callback = null;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        replayThread = null;
+    }
+
+    private void replay(int[] order, long wallBase, long nanoBase) {
+        long shift = timeShiftNanos;
+        long lastDelivery = wallBase;
+        int next = 0;
+        while (next < order.length) {
+            long due = times[order[next]] + shift;
+            long deadline = Math.max(due, lastDelivery + maxReportLatencyNanos);
+            long now;
+            synchronized (lock) {
+                while (true) {
+                    if (callback == null) return;
+                    now = wallBase + (System.nanoTime() - nanoBase);
+                    if (now >= deadline || flushRequested) break;
+                    long waitNanos = deadline - now;
+                    try {
+                        lock.wait(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                flushRequested = false;
+            }
+            for (; next < order.length && times[order[next]] + shift <= now; next++) {
+                Callback cb = callback;
+                if (cb == null) return;
+                int i = order[next];
+                cb.onSample(sensors[i], times[i] + shift, values[i * 3], values[i * 3 + 1], values[i * 3 + 2]);
+            }
+            lastDelivery = now;
+        }
+    }
+
+    // 按时间排序的读数下标（同一时间保持写入顺序）
+    private int[] timeOrder() {
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) boxed[i] = i;
+        Arrays.sort(boxed, (a, b) -> Long.compare(times[a], times[b]));
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = boxed[i];
+        return order;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.infer;
+
+// 按时间顺序合并触摸队列和传感器队列（两个SpscSampleQueue的消费端），交给Sink写入原始数据缓冲区。
+// 两个生产者互不等待，合并时要保证输出的时间顺序：
+//   触摸事件要等传感器水位越过它（水位之前的融合行都已发布），传感器长时间无读数（未注册或中断）时最多等sensorMaxDelayMs；
+//   传感器行要等其时间之前的触摸事件都已发布，触摸事件在UI线程处理时即发布，因此只需等行时间早于当前时间touchSettleMs。
+// 水位由传感器线程推进；drain等消费者一侧的方法须满足SpscSampleQueue对消费者的要求（互斥，如都在同一把锁内）
+public class SampleQueueMerger {
+    public interface Sink {
+        void onTouch(SpscSampleQueue queue, int slot);
+
+        void onSensor(SpscSampleQueue queue, int slot);
+    }
+
+    private final SpscSampleQueue touchQueue;
+    private final SpscSampleQueue sensorQueue;
+    private final long touchSettleMs;
+    private final long sensorMaxDelayMs;
+    // 传感器队列的水位（毫秒）：时间早于它的融合行都已发布，-1表示尚无
+    private volatile long sensorWatermarkMs = -1;
+
+    public SampleQueueMerger(SpscSampleQueue touchQueue, SpscSampleQueue sensorQueue,
+                             long touchSettleMs, long sensorMaxDelayMs) {
+        this.touchQueue = touchQueue;
+        this.sensorQueue = sensorQueue;
+        this.touchSettleMs = touchSettleMs;
+        this.sensorMaxDelayMs = sensorMaxDelayMs;
+    }
+
+    // 传感器线程在发布融合行之后调用；水位有变化时返回true，调用方据此唤醒消费线程
+    public boolean advanceWatermark(long watermarkMs) {
+        if (watermarkMs == sensorWatermarkMs) return false;
+        sensorWatermarkMs = watermarkMs;
+        return true;
+    }
+
+    // 收集开始时调用，先于传感器开始上报
+    public void resetWatermark() {
+        sensorWatermarkMs = -1;
+    }
+
+    public long getWatermarkMs() {
+        return sensorWatermarkMs;
+    }
+
+    // 两个队列都没有已发布的事件；不需持有消费者的锁
+    public boolean isEmpty() {
+        return touchQueue.isEmpty() && sensorQueue.isEmpty();
+    }
+
+    // 按时间顺序取出已发布的事件交给sink，未到齐时停下；force为true时（收集结束）取完所有事件。
+    // nowMs为当前时间（与事件时间同一时钟）。返回队列中是否还留有未到齐的事件
+    public boolean drain(boolean force, long nowMs, Sink sink) {
+        while (true) {
+            // 先读水位再查看队列，水位之前的传感器行此时一定已在队列中
+            long watermark = sensorWatermarkMs;
+            int touchSlot = touchQueue.peek();
+            int sensorSlot = sensorQueue.peek();
+            if (touchSlot < 0 && sensorSlot < 0) return false;
+            if (sensorSlot < 0 || (touchSlot >= 0 && touchQueue.time[touchSlot] <= sensorQueue.time[sensorSlot])) {
+                long time = touchQueue.time[touchSlot];
+                if (!force && sensorSlot < 0 && time >= watermark && nowMs - time < sensorMaxDelayMs) return true;
+                sink.onTouch(touchQueue, touchSlot);
+                touchQueue.poll();
+            } else {
+                if (!force && touchSlot < 0 && nowMs - sensorQueue.time[sensorSlot] < touchSettleMs) return true;
+                sink.onSensor(sensorQueue, sensorSlot);
+                sensorQueue.poll();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.infer;
+
+import java.util.List;
+import java.util.Locale;
+
+// 打分偏差报告：对比近似打分路径与精确路径在同一批（已标准化）特征上的异常分数
+public class ScoreDeviationReport {
+    private final String label;
+    private final int sampleCount;
+    private final double maxAbsDeviation;
+    private final double meanAbsDeviation;
+    private final int flippedDecisions; // 相对阈值判定结果发生翻转的样本数
+    private final float threshold;
+
+    private ScoreDeviationReport(String label, int sampleCount, double maxAbsDeviation,
+                                 double meanAbsDeviation, int flippedDecisions, float threshold) {
+        this.label = label;
+        this.sampleCount = sampleCount;
+        this.maxAbsDeviation = maxAbsDeviation;
+        this.meanAbsDeviation = meanAbsDeviation;
+        this.flippedDecisions = flippedDecisions;
+        this.threshold = threshold;
+    }
+
+    public static ScoreDeviationReport compare(String label, float[] exactScores, float[] approxScores, float threshold) {
+        if (exactScores.length != approxScores.length) {
+            throw new IllegalArgumentException("分数数量不一致：" + exactScores.length + " vs " + approxScores.length);
+        }
+        double max = 0;
+        double sum = 0;
+        int flipped = 0;
+        for (int i = 0; i < exactScores.length; i++) {
+            double dev = Math.abs(exactScores[i] - approxScores[i]);
+            max = Math.max(max, dev);
+            sum += dev;
+            if ((exactScores[i] < threshold) != (approxScores[i] < threshold)) {
+                flipped++;
+            }
+        }
+        double mean = exactScores.length == 0 ? 0 : sum / exactScores.length;
+        return new ScoreDeviationReport(label, exactScores.length, max, mean, flipped, threshold);
+    }
+
+    // 在留出特征集上分别用两个模型打分并比较
+    public static ScoreDeviationReport compare(String label, OCSVMModel exact, OCSVMModel approx,
+                                               List<float[]> heldOutFeatures, float threshold) {
+        float[][] batch = heldOutFeatures.toArray(new float[0][]);
+        return compare(label, exact.inferBatch(batch), approx.inferBatch(batch), threshold);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public double getMaxAbsDeviation() {
+        return maxAbsDeviation;
+    }
+
+    public double getMeanAbsDeviation() {
+        return meanAbsDeviation;
+    }
+
+    public int getFlippedDecisions() {
+        return flippedDecisions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH,
+                "%s：样本%d个，最大分数偏差=%.6f，平均分数偏差=%.6f，判定翻转%d个（阈值%.4f）",
+                label, sampleCount, maxAbsDeviation, meanAbsDeviation, flippedDecisions, threshold);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.infer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// KLL流式分位数草图：按层保存样本，第h层每个样本代表2^h个原始值。
+// 某层写满时排序后随机保留奇数位或偶数位的一半升到上一层，误差约为 O(1/k) 的秩误差。
+// 各层容量自顶向下按2/3递减（不低于2），总样本数约为3k，与累计写入的分数个数无关
+// （层数只随log(n/k)增加，每多一层只多出一个最小缓冲区）。
+// update均摊O(1)；quantile对至多约3k个样本排序，与n无关。非线程安全，由调用方同步
+public class ScoreQuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int FORMAT_VERSION = 1;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private float[][] levels = new float[1][];
+    private int[] sizes = new int[1];
+    private int levelCount = 1;
+    private long n;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    public ScoreQuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public ScoreQuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k过小：" + k);
+        }
+        this.k = k;
+        levels[0] = new float[capacity(0) + 1];
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    public void update(float value) {
+        if (Float.isNaN(value)) return;
+        if (n == 0 || value < min) min = value;
+        if (n == 0 || value > max) max = value;
+        n++;
+        append(0, value);
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    // q ∈ [0, 1]；空草图返回NaN
+    public float quantile(double q) {
+        if (n == 0) return Float.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+
+        int retained = 0;
+        for (int h = 0; h < levelCount; h++) retained += sizes[h];
+        long[] packed = new long[retained];
+        float[] values = new float[retained];
+        int count = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[count] = levels[h][i];
+                packed[count] = ((long) sortableBits(levels[h][i]) << 32) | count;
+                count++;
+            }
+        }
+        // 按值排序，低32位带出下标以取回所在层的权重
+        Arrays.sort(packed);
+        long[] weights = new long[retained];
+        int index = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                weights[index++] = 1L << h;
+            }
+        }
+        long totalWeight = 0;
+        for (long weight : weights) totalWeight += weight;
+
+        double target = q * totalWeight;
+        long cumulative = 0;
+        for (long entry : packed) {
+            int i = (int) entry;
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(k);
+        out.writeLong(n);
+        out.writeFloat(min);
+        out.writeFloat(max);
+        out.writeLong(randomState);
+        out.writeInt(levelCount);
+        for (int h = 0; h < levelCount; h++) {
+            out.writeInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                out.writeFloat(levels[h][i]);
+            }
+        }
+    }
+
+    public static ScoreQuantileSketch readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的分位数草图版本：" + version);
+        }
+        ScoreQuantileSketch sketch = new ScoreQuantileSketch(in.readInt());
+        sketch.n = in.readLong();
+        sketch.min = in.readFloat();
+        sketch.max = in.readFloat();
+        sketch.randomState = in.readLong();
+        int levelCount = in.readInt();
+        if (levelCount < 1 || levelCount > 64) {
+            throw new IOException("分位数草图层数错误：" + levelCount);
+        }
+        sketch.ensureLevels(levelCount);
+        for (int h = 0; h < levelCount; h++) {
+            int size = in.readInt();
+            if (size < 0 || size > sketch.k + 1) {
+                throw new IOException("分位数草图第" + h + "层样本数错误：" + size);
+            }
+            for (int i = 0; i < size; i++) {
+                sketch.append(h, in.readFloat());
+            }
+        }
+        return sketch;
+    }
+
+    // 第h层容量：顶层为k，往下每层乘2/3
+    private int capacity(int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        for (int h = 0; h < levelCount; h++) {
+            if (sizes[h] < capacity(h)) continue;
+            if (h + 1 == levelCount) {
+                ensureLevels(levelCount + 1);
+            }
+            float[] items = levels[h];
+            int size = sizes[h];
+            Arrays.sort(items, 0, size);
+            // 奇数个时最大的一个留在本层，其余两两一组随机保留一个升层
+            int paired = size & ~1;
+            int offset = nextBit();
+            for (int i = offset; i < paired; i += 2) {
+                append(h + 1, items[i]);
+            }
+            if (paired < size) {
+                items[0] = items[paired];
+                sizes[h] = 1;
+            } else {
+                sizes[h] = 0;
+            }
+        }
+    }
+
+    private void append(int level, float value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void ensureLevels(int count) {
+        if (levels.length < count) {
+            levels = Arrays.copyOf(levels, count);
+            sizes = Arrays.copyOf(sizes, count);
+        }
+        for (int h = levelCount; h < count; h++) {
+            levels[h] = new float[MIN_CAPACITY];
+        }
+        levelCount = Math.max(levelCount, count);
+    }
+
+    private int nextBit() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+
+    // float按位映射为保序的int（负数翻转数值位）
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.infer;
+
+// 传感器融合重采样：加速度、角速度、磁力计各自回调，频率和相位都不同。这里为每个传感器保存最近HISTORY次读数（最新值持有器，
+// 环形数组；等待慢传感器期间快传感器的读数不会被挤掉），按选定采样率的统一节拍输出融合的9轴行：
+// 节拍时刻t上，各传感器在包住t的相邻两次读数之间线性插值，t在保存的读数之外时取最近端点。
+// 节拍从第一次读数的时间开始；只有所有在用的传感器都已有不早于t的读数时才输出该节拍（内插不外推）。
+// 某个传感器落后最新读数超过STALE_NANOS时不再等它，该传感器取最后一次读数；尚无读数的传感器各轴为0。
+// 所有传感器都中断超过MAX_GAP_NANOS后恢复时，节拍直接跳到恢复后的时间，不补出中间的整段保持值。
+// 时间戳为纳秒（SensorSource给出的采样时刻，已换算到触摸事件的时钟）。在传感器线程上使用，非线程安全，不分配内存
+public class SensorResampler {
+    public static final int ACCELEROMETER = 0;
+    public static final int GYROSCOPE = 1;
+    public static final int MAGNETOMETER = 2;
+    private static final int SENSORS = 3;
+    private static final long STALE_NANOS = 200_000_000L;
+    private static final long MAX_GAP_NANOS = 1_000_000_000L;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final int HISTORY = 128; // 须为2的幂；覆盖400Hz传感器在STALE_NANOS内的80次读数
+
+    // 每个节拍的融合行；values为复用的9元数组（加速度XYZ、角速度XYZ、磁力计XYZ），回调返回后即被改写
+    public interface Sink {
+        void onFusedRow(long timeNanos, float[] values);
+    }
+
+    private final boolean[] enabled = new boolean[SENSORS];
+    private final int[] readings = new int[SENSORS];   // 保存的读数个数，至多HISTORY
+    private final int[] latestSlot = new int[SENSORS]; // 最新读数在环形数组中的位置
+    private final long[] latestTime = new long[SENSORS];
+    private final long[][] times = new long[SENSORS][HISTORY];
+    private final float[][] values = new float[SENSORS][HISTORY * 3];
+    private final float[] row = new float[SENSORS * 3];
+    private long periodNanos = 1_000_000_000L / 50;
+    private long nextTick = NOT_STARTED;
+
+    // 收集开始时调用；未启用的传感器不参与等待，其各轴为0
+    public void reset(int sampleRateHz, boolean accelerometer, boolean gyroscope, boolean magnetometer) {
+        if (sampleRateHz <= 0) {
+            throw new IllegalArgumentException("采样率须为正数：" + sampleRateHz);
+        }
+        periodNanos = 1_000_000_000L / sampleRateHz;
+        enabled[ACCELEROMETER] = accelerometer;
+        enabled[GYROSCOPE] = gyroscope;
+        enabled[MAGNETOMETER] = magnetometer;
+        for (int s = 0; s < SENSORS; s++) {
+            readings[s] = 0;
+        }
+        nextTick = NOT_STARTED;
+    }
+
+    // 下一个尚未输出的节拍时刻，早于它的节拍都已交给Sink；尚无读数时为Long.MIN_VALUE
+    public long getNextTickNanos() {
+        return nextTick;
+    }
+
+    // 写入一次读数，并输出此后已可确定的所有节拍
+    public void update(int sensor, long timeNanos, float x, float y, float z, Sink sink) {
+        int slot;
+        if (readings[sensor] > 0 && timeNanos <= latestTime[sensor]) {
+            // 时间戳不晚于最新读数（重复或乱序）时只更新最新值
+            slot = latestSlot[sensor];
+        } else {
+            slot = readings[sensor] == 0 ? 0 : (latestSlot[sensor] + 1) & (HISTORY - 1);
+            latestSlot[sensor] = slot;
+            latestTime[sensor] = timeNanos;
+            times[sensor][slot] = timeNanos;
+            if (readings[sensor] < HISTORY) readings[sensor]++;
+        }
+        float[] v = values[sensor];
+        v[slot * 3] = x;
+        v[slot * 3 + 1] = y;
+        v[slot * 3 + 2] = z;
+        if (nextTick == NOT_STARTED) {
+            nextTick = timeNanos;
+        }
+
+        long newest = newestTime();
+        if (newest - nextTick > MAX_GAP_NANOS) {
+            nextTick += (newest - nextTick - STALE_NANOS) / periodNanos * periodNanos;
+        }
+        while (ready(newest)) {
+            for (int s = 0; s < SENSORS; s++) {
+                interpolate(s, nextTick, s * 3);
+            }
+            sink.onFusedRow(nextTick, row);
+            nextTick += periodNanos;
+        }
+    }
+
+    // 节拍nextTick可以输出：每个在用的传感器要么已有不早于它的读数，要么已落后超过STALE_NANOS
+    private boolean ready(long newest) {
+        if (newest < nextTick) return false;
+        boolean stale = newest - nextTick > STALE_NANOS;
+        for (int s = 0; s < SENSORS; s++) {
+            if (!enabled[s] || stale) continue;
+            if (readings[s] == 0 || latestTime[s] < nextTick) return false;
+        }
+        return true;
+    }
+
+    private long newestTime() {
+        long newest = NOT_STARTED;
+        for (int s = 0; s < SENSORS; s++) {
+            if (readings[s] > 0 && latestTime[s] > newest) newest = latestTime[s];
+        }
+        return newest;
+    }
+
+    private void interpolate(int sensor, long t, int offset) {
+        int count = readings[sensor];
+        if (count == 0) {
+            row[offset] = 0f;
+            row[offset + 1] = 0f;
+            row[offset + 2] = 0f;
+            return;
+        }
+        // 从最新读数往前找第一个不晚于t的读数
+        long[] time = times[sensor];
+        float[] v = values[sensor];
+        int later = latestSlot[sensor];
+        if (t >= time[later]) {
+            System.arraycopy(v, later * 3, row, offset, 3);
+            return;
+        }
+        for (int i = 1; i < count; i++) {
+            int earlier = (later - 1) & (HISTORY - 1);
+            long t0 = time[earlier];
+            if (t0 <= t) {
+                float w = (float) ((double) (t - t0) / (time[later] - t0));
+                for (int k = 0; k < 3; k++) {
+                    float a = v[earlier * 3 + k];
+                    row[offset + k] = a + (v[later * 3 + k] - a) * w;
+                }
+                return;
+            }
+            later = earlier;
+        }
+        System.arraycopy(v, later * 3, row, offset, 3);
+    }
+}
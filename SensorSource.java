@@ -0,0 +1,25 @@
+package com.example.infer;
+
+// 采集用的传感器数据来源：加速度、角速度、磁力计三类读数。
+// 读数的时间戳已换算到触摸事件所用的时钟（System.currentTimeMillis()，以纳秒表示），可直接与触摸行对齐；
+// 同一来源的回调在同一个线程上依次执行，各传感器的时间戳单调递增。
+// 实现可以批量上报（读数先缓存在硬件FIFO中），flush请求尽快交付已缓存的读数，不等待交付完成
+public interface SensorSource {
+    int ACCELEROMETER = SensorResampler.ACCELEROMETER;
+    int GYROSCOPE = SensorResampler.GYROSCOPE;
+    int MAGNETOMETER = SensorResampler.MAGNETOMETER;
+
+    interface Callback {
+        void onSample(int sensor, long timeNanos, float x, float y, float z);
+    }
+
+    // 该传感器是否可用
+    boolean has(int sensor);
+
+    // 按采样率开始上报；已开始时忽略。失败时抛出异常，不会部分开始
+    void start(int sampleRateHz, Callback callback);
+
+    void flush();
+
+    void stop();
+}
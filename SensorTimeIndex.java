@@ -0,0 +1,238 @@
+package com.example.infer;
+
+import java.util.Arrays;
+import java.util.List;
+
+// 按时间索引的传感器数据：时间戳存一列基本类型数组，查询时间窗[a, b]先二分定位行区间（O(log n)）。
+// 索引不随采集实时维护，而是事后建立：验证时由去重后的全部数据建立一次（build(List)），
+// 流水线逐个滑动打分时由原始数据缓冲区快照中该滑动的时间窗建立（build(views, from, to)）。
+// 建立时逐行追加，每个传感器轴（加速度XYZ、角速度XYZ、磁力计XYZ）随之维护：
+//   值、值的平方、相邻差值平方的前缀和 → 均值、方差、复杂度 O(1)；
+//   最小/最大值的稀疏表（第j层记录从每行起2^j行内的最值，追加一行只需补每层末尾一项）→ 最小/最大 O(1)。
+// 建立一次为 O(n log n)，之后任意窗口的5个轴统计量与窗口长度无关，同一次验证中相邻滑动的扩展窗口重叠也不会重复计算。
+// 前缀和以各轴第一个值为基准平移后累加，避免磁力计这类大均值小方差的数据在 E[x²]-E[x]² 中相消丢失精度。
+// 与Python训练脚本一致，传感器读数以原始数据行为单位（传感器行为融合重采样行，触摸行带追加时最新的融合读数），
+// 只收录按下/滑动中/抬起三类行；触摸区间向前后扩展FILTER_TIME_T毫秒计算传感器特征时使用。
+// 行须按时间顺序追加；内存约为每行 9轴 × (3个double + 2×层数个float)
+public class SensorTimeIndex {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int AXES = TouchFeatureExtractor.SENSOR_AXES;
+
+    private long[] times = new long[INITIAL_CAPACITY];
+    private final float[] previous = new float[AXES];
+    private final float[] reference = new float[AXES];     // 前缀和的平移基准（各轴第一个值）
+    private final double[][] prefixSum = new double[AXES][];
+    private final double[][] prefixSq = new double[AXES][];
+    private final double[][] prefixDiffSq = new double[AXES][]; // prefixDiffSq[i+1]含第i行与第i-1行的差值平方
+    private final float[][][] minTable = new float[AXES][][];
+    private final float[][][] maxTable = new float[AXES][][];
+    private int size;
+
+    public SensorTimeIndex() {
+        int levels = levelsFor(INITIAL_CAPACITY);
+        for (int k = 0; k < AXES; k++) {
+            prefixSum[k] = new double[INITIAL_CAPACITY + 1];
+            prefixSq[k] = new double[INITIAL_CAPACITY + 1];
+            prefixDiffSq[k] = new double[INITIAL_CAPACITY + 1];
+            minTable[k] = new float[levels][INITIAL_CAPACITY];
+            maxTable[k] = new float[levels][INITIAL_CAPACITY];
+        }
+    }
+
+    public static SensorTimeIndex build(List<MainActivity.AllDataModel> sortedSamples) {
+        SensorTimeIndex index = new SensorTimeIndex();
+        for (int i = 0; i < sortedSamples.size(); i++) {
+            index.append(sortedSamples.get(i));
+        }
+        return index;
+    }
+
+    // 从原始数据缓冲区的快照中取时间窗[from, to]内的行，按时间归并建立索引（同一时间按快照顺序）
+    public static SensorTimeIndex build(List<RawSampleBuffer.View> views, long from, long to) {
+        SensorTimeIndex index = new SensorTimeIndex();
+        int k = views.size();
+        int[] heads = new int[k];
+        for (int s = 0; s < k; s++) {
+            heads[s] = views.get(s).lowerBound(from);
+        }
+        while (true) {
+            int pick = -1;
+            long pickTime = Long.MAX_VALUE;
+            for (int s = 0; s < k; s++) {
+                RawSampleBuffer.View view = views.get(s);
+                if (heads[s] < view.size()) {
+                    long time = view.time(heads[s]);
+                    if (time <= to && (pick < 0 || time < pickTime)) {
+                        pick = s;
+                        pickTime = time;
+                    }
+                }
+            }
+            if (pick < 0) break;
+            RawSampleBuffer.View view = views.get(pick);
+            RawSampleBuffer buffer = view.buffer();
+            int row = view.row(heads[pick]++);
+            float[][] v = buffer.sensors;
+            index.append(buffer.touchType[row], buffer.time[row],
+                    v[0][row], v[1][row], v[2][row], v[3][row], v[4][row], v[5][row], v[6][row], v[7][row], v[8][row]);
+        }
+        return index;
+    }
+
+    public void append(MainActivity.AllDataModel data) {
+        append(TouchSessionizer.touchTypeOf(data.touchType), data.time,
+                data.accX, data.accY, data.accZ, data.gyroX, data.gyroY, data.gyroZ, data.magX, data.magY, data.magZ);
+    }
+
+    // touchType为TouchSessionizer的类型位（与RawSampleBuffer的编码相同），0表示无触摸行，不收录
+    public void append(int touchType, long time,
+                       float accX, float accY, float accZ,
+                       float gyroX, float gyroY, float gyroZ,
+                       float magX, float magY, float magZ) {
+        if (touchType == 0) return;
+        if (size > 0 && time < times[size - 1]) {
+            throw new IllegalArgumentException("传感器数据须按时间顺序追加：" + time + " < " + times[size - 1]);
+        }
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        appendAxis(0, accX);
+        appendAxis(1, accY);
+        appendAxis(2, accZ);
+        appendAxis(3, gyroX);
+        appendAxis(4, gyroY);
+        appendAxis(5, gyroZ);
+        appendAxis(6, magX);
+        appendAxis(7, magY);
+        appendAxis(8, magZ);
+        size++;
+    }
+
+    private void appendAxis(int axis, float value) {
+        int i = size;
+        if (i == 0) {
+            reference[axis] = value;
+        }
+        double shifted = (double) value - reference[axis];
+        prefixSum[axis][i + 1] = prefixSum[axis][i] + shifted;
+        prefixSq[axis][i + 1] = prefixSq[axis][i] + shifted * shifted;
+        double diff = i == 0 ? 0 : value - previous[axis];
+        prefixDiffSq[axis][i + 1] = prefixDiffSq[axis][i] + diff * diff;
+        previous[axis] = value;
+
+        // 新行成为每层中以它结尾的区间的最后一项：第j层起点为 i - 2^j + 1
+        float[][] mins = minTable[axis];
+        float[][] maxs = maxTable[axis];
+        mins[0][i] = value;
+        maxs[0][i] = value;
+        for (int level = 1; level < mins.length && (1 << level) <= i + 1; level++) {
+            int start = i - (1 << level) + 1;
+            int half = start + (1 << (level - 1));
+            mins[level][start] = Math.min(mins[level - 1][start], mins[level - 1][half]);
+            maxs[level][start] = Math.max(maxs[level - 1][start], maxs[level - 1][half]);
+        }
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        int levels = levelsFor(capacity);
+        times = Arrays.copyOf(times, capacity);
+        for (int k = 0; k < AXES; k++) {
+            prefixSum[k] = Arrays.copyOf(prefixSum[k], capacity + 1);
+            prefixSq[k] = Arrays.copyOf(prefixSq[k], capacity + 1);
+            prefixDiffSq[k] = Arrays.copyOf(prefixDiffSq[k], capacity + 1);
+            minTable[k] = growTable(minTable[k], levels, capacity);
+            maxTable[k] = growTable(maxTable[k], levels, capacity);
+        }
+    }
+
+    private static float[][] growTable(float[][] table, int levels, int capacity) {
+        float[][] grown = new float[levels][];
+        for (int level = 0; level < levels; level++) {
+            grown[level] = level < table.length ? Arrays.copyOf(table[level], capacity) : new float[capacity];
+        }
+        return grown;
+    }
+
+    private static int levelsFor(int capacity) {
+        return 32 - Integer.numberOfLeadingZeros(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long timeAt(int row) {
+        return times[row];
+    }
+
+    // 稀疏表第0层即各行原值
+    float valueAt(int axis, int row) {
+        return minTable[axis][0][row];
+    }
+
+    // 第一个时间 >= time 的行
+    public int lowerBound(long time) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // 第一个时间 > time 的行
+    public int upperBound(long time) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] <= time) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // 时间窗[from, to]内的行数
+    public int count(long from, long to) {
+        return Math.max(0, upperBound(to) - lowerBound(from));
+    }
+
+    // 把时间窗[from, to]内各轴的均值/最小/最大/方差/复杂度写入out的传感器特征位置（29起，每轴5个）；
+    // required中未用到的轴跳过并填0，窗内没有数据时各统计量为0
+    public void writeAxisFeatures(long from, long to, boolean[] required, float[] out) {
+        int lo = lowerBound(from);
+        int hi = Math.max(lo, upperBound(to));
+        int n = hi - lo;
+        int level = n > 0 ? 31 - Integer.numberOfLeadingZeros(n) : 0;
+        for (int k = 0; k < AXES; k++) {
+            int base = TouchFeatureExtractor.SENSOR_FEATURES + k * TouchFeatureExtractor.AXIS_FEATURES;
+            if (n == 0 || !needsAxis(required, base)) {
+                for (int j = 0; j < TouchFeatureExtractor.AXIS_FEATURES; j++) {
+                    out[base + j] = 0f;
+                }
+                continue;
+            }
+            double shiftedMean = (prefixSum[k][hi] - prefixSum[k][lo]) / n;
+            double variance = (prefixSq[k][hi] - prefixSq[k][lo]) / n - shiftedMean * shiftedMean;
+            double diffSq = prefixDiffSq[k][hi] - prefixDiffSq[k][lo + 1];
+            int secondStart = hi - (1 << level);
+            out[base] = (float) (shiftedMean + reference[k]);
+            out[base + 1] = Math.min(minTable[k][level][lo], minTable[k][level][secondStart]);
+            out[base + 2] = Math.max(maxTable[k][level][lo], maxTable[k][level][secondStart]);
+            out[base + 3] = (float) Math.max(0, variance);
+            out[base + 4] = (float) Math.sqrt(Math.max(0, diffSq));
+        }
+    }
+
+    private static boolean needsAxis(boolean[] required, int base) {
+        if (required == null) return true;
+        for (int j = base; j < base + TouchFeatureExtractor.AXIS_FEATURES; j++) {
+            if (required[j]) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.infer;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// 采集与判定流水线：每次滑动定稿（LiveFeatureTracker回调）后立即把补齐特征、填充+标准化和打分交给后台单线程，
+// 与后续滑动的采集并行；收集窗口结束时通常只剩最后一次滑动还在处理。
+// 队列有界，排满时该次滑动不进入流水线，由收集结束后的批处理路径照常处理；
+// 判定时仍以批处理会话为准，按动作ID取用采样数一致的流水线结果。
+// 只处理传感器特征窗口不超出触摸区间的情况（FILTER_TIME_T = 0），扩展窗口要等区间之后的传感器数据，由调用方决定是否启用
+public class SessionScoringPipeline {
+    private static final String TAG = "SessionPipeline";
+    private static final int QUEUE_CAPACITY = 16;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+    private final SpectralFeatureExtractor spectralExtractor = new SpectralFeatureExtractor(); // 仅在工作线程中使用
+    private final Map<Integer, Future<Scored>> pending = new HashMap<>();
+
+    private OCSVMModelBundle bundle;
+    private OCSVMModel model;
+    private int sampleRateHz;
+
+    // 一次滑动的流水线结果
+    public static class Scored {
+        public final float[] features;   // 原始特征（getRawDims()维）
+        public final float[] processed;  // 填充+标准化后的特征
+        public final float score;
+        public final int imputedCount;
+        public final int sampleCount;
+
+        Scored(float[] features, float[] processed, float score, int imputedCount, int sampleCount) {
+            this.features = features;
+            this.processed = processed;
+            this.score = score;
+            this.imputedCount = imputedCount;
+            this.sampleCount = sampleCount;
+        }
+    }
+
+    // 收集窗口开始时调用，丢弃上一个窗口尚未取走的结果
+    public synchronized void start(OCSVMModelBundle bundle, OCSVMModel model, int sampleRateHz) {
+        cancelPending();
+        this.bundle = bundle;
+        this.model = model;
+        this.sampleRateHz = sampleRateHz;
+    }
+
+    // 提交一次已定稿的滑动；不阻塞，队列已满或未开始时返回false。
+    // sources为定稿时各原始数据缓冲区的快照，需补算频域特征时从中按时间窗读取传感器读数
+    public synchronized boolean submit(int actionId, LiveFeatureTracker.Result live, List<RawSampleBuffer.View> sources) {
+        if (model == null) return false;
+        OCSVMModelBundle bundle = this.bundle;
+        OCSVMModel model = this.model;
+        int sampleRateHz = this.sampleRateHz;
+        try {
+            pending.put(actionId, executor.submit(() -> score(bundle, model, sampleRateHz, live, sources)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "流水线队列已满，动作ID=" + actionId + "留待收集结束后处理");
+            return false;
+        }
+    }
+
+    // 取出该动作的结果并等待其完成；未进入流水线、处理失败或已被取消（cancel/shutdown）时返回null
+    public Scored take(int actionId) throws InterruptedException {
+        Future<Scored> future;
+        synchronized (this) {
+            future = pending.remove(actionId);
+        }
+        if (future == null) return null;
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "动作ID=" + actionId + "流水线处理失败：" + e.getCause());
+            return null;
+        } catch (CancellationException e) {
+            return null;
+        }
+    }
+
+    // 停止本窗口：丢弃未取走的结果，此后提交的滑动不再处理，直到下一次start
+    public synchronized void cancel() {
+        cancelPending();
+        bundle = null;
+        model = null;
+    }
+
+    public void shutdown() {
+        cancel();
+        // 尚未开始执行的任务不会再运行，取消它们，已取出Future正在等待的take随即返回
+        for (Runnable queued : executor.shutdownNow()) {
+            if (queued instanceof Future) {
+                ((Future<?>) queued).cancel(false);
+            }
+        }
+    }
+
+    private void cancelPending() {
+        for (Future<Scored> future : pending.values()) {
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    private Scored score(OCSVMModelBundle bundle, OCSVMModel model, int sampleRateHz,
+                         LiveFeatureTracker.Result live, List<RawSampleBuffer.View> sources) throws Exception {
+        int featureCount = model.getRawDims();
+        float[] features = live.features.length == featureCount
+                ? live.features : Arrays.copyOf(live.features, featureCount);
+        if (model.hasSpectralFeatures()) {
+            SensorTimeIndex index = SensorTimeIndex.build(sources, live.startTime, live.endTime);
+            spectralExtractor.compute(index, live.startTime, live.endTime, sampleRateHz, features,
+                    TouchFeatureExtractor.FEATURE_COUNT);
+        }
+
+        float[] processed = new float[featureCount];
+        int imputedCount = model.getFeatureTransformer().transform(features, processed);
+        float score = bundle.inferBatch(new float[][]{processed}, new String[]{live.direction})[0];
+        return new Scored(features, processed, score, imputedCount, live.sampleCount);
+    }
+}
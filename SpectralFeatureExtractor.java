@@ -0,0 +1,195 @@
+package com.example.infer;
+
+// 传感器频域特征（可选，模型文件flags声明FLAG_SPECTRAL_FEATURES时追加在74维时域特征之后）。
+// 每个传感器轴6个：4个频带能量占比、主频（Hz）、谱熵（归一化到[0, 1]），9轴共54个。
+// 计算步骤（与Python训练脚本的extract_spectral_features一致）：
+//   1. 取窗口[from, to]内该传感器（加速度/角速度/磁力计）确有读数的行——三个轴全为0的行（该传感器尚无读数，或旧数据中其他传感器的行）不参与；
+//      同一时间戳有多行时取最后一行；
+//   2. 从from起按采样率线性插值重采样为m = min(FFT_SIZE, floor((to - from) / 步长) + 1)个点，两端外推取端点值；
+//   3. 去均值、乘Hann窗、补零到FFT_SIZE，做基2 FFT，取1..FFT_SIZE/2号频点的功率谱。
+// 所有缓冲区和旋转因子在构造时分配，实例可跨会话重复使用、不分配内存；非线程安全
+public class SpectralFeatureExtractor {
+    public static final int FFT_SIZE = 64;
+    public static final int BANDS = 4;
+    public static final int AXIS_FEATURES = BANDS + 2;
+    public static final int FEATURE_COUNT = TouchFeatureExtractor.SENSOR_AXES * AXIS_FEATURES;
+
+    private static final int HALF = FFT_SIZE / 2;
+    private static final int SENSOR_GROUPS = 3; // 加速度、角速度、磁力计，各3轴
+
+    private final double[] re = new double[FFT_SIZE];
+    private final double[] im = new double[FFT_SIZE];
+    private final double[] cosTable = new double[HALF];
+    private final double[] sinTable = new double[HALF];
+    private final int[] bitReverse = new int[FFT_SIZE];
+    private final double[] power = new double[HALF];
+    private int[] validRows = new int[256];
+
+    public SpectralFeatureExtractor() {
+        for (int i = 0; i < HALF; i++) {
+            cosTable[i] = Math.cos(2 * Math.PI * i / FFT_SIZE);
+            sinTable[i] = Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+        int bits = Integer.numberOfTrailingZeros(FFT_SIZE);
+        for (int i = 0; i < FFT_SIZE; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    // CSV表头用的特征名，顺序与compute的输出一致（与Python训练脚本的列名相同）
+    public static String[] featureNames() {
+        String[] sensors = {"加速度", "角速度", "磁力计"};
+        String[] axisNames = {"x", "y", "z"};
+        String[] names = new String[FEATURE_COUNT];
+        int i = 0;
+        for (String sensor : sensors) {
+            for (String axis : axisNames) {
+                String prefix = sensor + " " + axis + "_";
+                for (int b = 1; b <= BANDS; b++) {
+                    names[i++] = prefix + "频带" + b + "能量占比";
+                }
+                names[i++] = prefix + "主频";
+                names[i++] = prefix + "谱熵";
+            }
+        }
+        return names;
+    }
+
+    // 把窗口[from, to]的54个频域特征写入out[offset..offset+54)；有效行不足2行的传感器各特征为0
+    public void compute(SensorTimeIndex index, long from, long to, int sampleRateHz, float[] out, int offset) {
+        double stepMs = 1000.0 / sampleRateHz;
+        int m = to < from ? 0 : Math.min(FFT_SIZE, (int) Math.floor((to - from) / stepMs) + 1);
+        int lo = index.lowerBound(from);
+        int hi = Math.max(lo, index.upperBound(to));
+
+        for (int group = 0; group < SENSOR_GROUPS; group++) {
+            int validCount = collectValidRows(index, lo, hi, group);
+            for (int a = 0; a < 3; a++) {
+                int axis = group * 3 + a;
+                int base = offset + axis * AXIS_FEATURES;
+                if (validCount < 2 || m < 2) {
+                    for (int j = 0; j < AXIS_FEATURES; j++) out[base + j] = 0f;
+                    continue;
+                }
+                resample(index, axis, validCount, from, stepMs, m);
+                spectrum(m);
+                writeAxisFeatures(sampleRateHz, out, base);
+            }
+        }
+    }
+
+    // 窗口内该传感器有读数的行（三个轴不全为0），同一时间戳只保留最后一行
+    private int collectValidRows(SensorTimeIndex index, int lo, int hi, int group) {
+        if (validRows.length < hi - lo) {
+            validRows = new int[Math.max(hi - lo, validRows.length * 2)];
+        }
+        int count = 0;
+        for (int row = lo; row < hi; row++) {
+            if (index.valueAt(group * 3, row) == 0f && index.valueAt(group * 3 + 1, row) == 0f
+                    && index.valueAt(group * 3 + 2, row) == 0f) {
+                continue;
+            }
+            if (count > 0 && index.timeAt(validRows[count - 1]) == index.timeAt(row)) {
+                validRows[count - 1] = row;
+            } else {
+                validRows[count++] = row;
+            }
+        }
+        return count;
+    }
+
+    private void resample(SensorTimeIndex index, int axis, int validCount, long from, double stepMs, int m) {
+        int p = 0; // 时间 <= t 的最后一个有效行（t早于第一行时为0）
+        for (int j = 0; j < m; j++) {
+            double t = from + j * stepMs;
+            while (p + 1 < validCount && index.timeAt(validRows[p + 1]) <= t) {
+                p++;
+            }
+            long t0 = index.timeAt(validRows[p]);
+            float v0 = index.valueAt(axis, validRows[p]);
+            if (t <= t0 || p + 1 >= validCount) {
+                re[j] = v0;
+            } else {
+                long t1 = index.timeAt(validRows[p + 1]);
+                float v1 = index.valueAt(axis, validRows[p + 1]);
+                re[j] = v0 + (v1 - v0) * (t - t0) / (t1 - t0);
+            }
+        }
+    }
+
+    // 去均值、Hann窗、补零后FFT，power[k-1]为第k个频点（k = 1..FFT_SIZE/2）的功率
+    private void spectrum(int m) {
+        double mean = 0;
+        for (int j = 0; j < m; j++) mean += re[j];
+        mean /= m;
+        for (int j = 0; j < FFT_SIZE; j++) {
+            re[j] = j < m ? (re[j] - mean) * (0.5 - 0.5 * Math.cos(2 * Math.PI * j / (m - 1))) : 0;
+            im[j] = 0;
+        }
+        fft();
+        for (int k = 1; k <= HALF; k++) {
+            power[k - 1] = re[k] * re[k] + im[k] * im[k];
+        }
+    }
+
+    // 原地基2 FFT（按时间抽取）
+    private void fft() {
+        for (int i = 0; i < FFT_SIZE; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                double tr = re[i];
+                re[i] = re[j];
+                re[j] = tr;
+                double ti = im[i];
+                im[i] = im[j];
+                im[j] = ti;
+            }
+        }
+        for (int size = 2; size <= FFT_SIZE; size <<= 1) {
+            int halfSize = size >> 1;
+            int tableStep = FFT_SIZE / size;
+            for (int start = 0; start < FFT_SIZE; start += size) {
+                for (int k = 0; k < halfSize; k++) {
+                    double wr = cosTable[k * tableStep];
+                    double wi = -sinTable[k * tableStep];
+                    int even = start + k;
+                    int odd = even + halfSize;
+                    double xr = re[odd] * wr - im[odd] * wi;
+                    double xi = re[odd] * wi + im[odd] * wr;
+                    re[odd] = re[even] - xr;
+                    im[odd] = im[even] - xi;
+                    re[even] += xr;
+                    im[even] += xi;
+                }
+            }
+        }
+    }
+
+    private void writeAxisFeatures(int sampleRateHz, float[] out, int base) {
+        double total = 0;
+        int dominant = 0;
+        for (int k = 0; k < HALF; k++) {
+            total += power[k];
+            if (power[k] > power[dominant]) dominant = k;
+        }
+        if (total <= 0) {
+            for (int j = 0; j < AXIS_FEATURES; j++) out[base + j] = 0f;
+            return;
+        }
+        int bandWidth = HALF / BANDS;
+        double entropy = 0;
+        for (int b = 0; b < BANDS; b++) {
+            double bandEnergy = 0;
+            for (int k = b * bandWidth; k < (b + 1) * bandWidth; k++) {
+                bandEnergy += power[k];
+            }
+            out[base + b] = (float) (bandEnergy / total);
+        }
+        for (int k = 0; k < HALF; k++) {
+            double p = power[k] / total;
+            if (p > 0) entropy -= p * Math.log(p);
+        }
+        out[base + BANDS] = (float) ((dominant + 1) * (double) sampleRateHz / FFT_SIZE);
+        out[base + BANDS + 1] = (float) (entropy / Math.log(HALF));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.infer;
+
+// 单生产者单消费者的无锁事件队列，按列存放（与RawSampleBuffer的列对应），生产者写入不分配对象、不加锁。
+// 生产者：slot = claim()，写入该槽位各列，再publish()；队列已满时claim返回-1，事件丢弃并计数，保证回调耗时有界。
+// 消费者：slot = peek()取队首，读完后poll()。
+// 写指针tail只由生产者写、读指针head只由消费者写，两者都是volatile：publish对tail的写发生在各列写入之后，
+// 消费者读到新的tail即可见对应槽位的内容；poll对head的写让生产者得知槽位可复用。
+// 消费者一侧的方法可由不同线程调用，但须互斥且之间有happens-before（如都在同一把锁内）
+public class SpscSampleQueue {
+    public static final byte KIND_TOUCH = 1;
+    public static final byte KIND_SENSOR = 2;
+    public static final byte KIND_INTERVAL = 3; // 一次触摸动作结束：intervalStart为起点，time为终点
+    public static final byte KIND_TOUCH_END = 4; // 抬起后触摸状态复位为无触摸
+
+    private final int mask;
+    final byte[] kind;
+    final byte[] touchType;
+    final byte[] direction;
+    final float[] x;
+    final float[] y;
+    final float[] pressure;
+    final float[] size;
+    final long[] time;
+    final long[] intervalStart;
+    final int[] actionId;
+    final float[][] sensors = new float[RawSampleBuffer.SENSOR_AXES][];
+
+    private volatile long head; // 下一个待消费的序号
+    private volatile long tail; // 下一个待写入的序号
+    private long cachedHead;    // 生产者缓存的head，减少对volatile的读取
+    private long claimed = -1;  // 生产者已claim未publish的序号
+    private volatile int dropped;
+
+    // capacity须为2的幂
+    public SpscSampleQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("队列容量须为2的幂：" + capacity);
+        }
+        mask = capacity - 1;
+        kind = new byte[capacity];
+        touchType = new byte[capacity];
+        direction = new byte[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        pressure = new float[capacity];
+        size = new float[capacity];
+        time = new long[capacity];
+        intervalStart = new long[capacity];
+        actionId = new int[capacity];
+        for (int k = 0; k < sensors.length; k++) {
+            sensors[k] = new float[capacity];
+        }
+    }
+
+    // ---------- 生产者 ----------
+
+    // 取得下一个可写槽位；队列已满时返回-1
+    public int claim() {
+        long t = tail;
+        if (t - cachedHead > mask) {
+            cachedHead = head;
+            if (t - cachedHead > mask) {
+                dropped++;
+                return -1;
+            }
+        }
+        claimed = t;
+        return (int) (t & mask);
+    }
+
+    public void publish() {
+        if (claimed < 0) {
+            throw new IllegalStateException("publish前须先claim到槽位");
+        }
+        tail = claimed + 1;
+        claimed = -1;
+    }
+
+    public int getDroppedCount() {
+        return dropped;
+    }
+
+    // ---------- 消费者 ----------
+
+    // 队首槽位，队列为空时返回-1
+    public int peek() {
+        long h = head;
+        return h < tail ? (int) (h & mask) : -1;
+    }
+
+    public void poll() {
+        head = head + 1;
+    }
+
+    // 是否没有已发布的事件；只读两个volatile指针，消费线程可在不持有互斥锁时用来判断是否需要加锁取事件
+    public boolean isEmpty() {
+        return head >= tail;
+    }
+
+    // 丢弃所有已发布的事件
+    public void clear() {
+        head = tail;
+    }
+}
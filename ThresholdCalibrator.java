@@ -0,0 +1,165 @@
+package com.example.infer;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// 按用户校准异常阈值：把判定为本人的验证中各会话的异常分数写入KLL分位数草图并持久化，
+// 阈值取本人分数分布的 1 - 目标拒真率 分位数，即约有目标比例的本人会话分数会高于阈值。
+// 各会话按滑动方向由不同模型打分，各模型的截距和分数尺度不同，因此每个模型一个草图，以模型指纹区分，
+// 会话分数与打分模型自己的阈值比较。
+// 草图大小固定（约3k个float），与该用户累计验证次数无关；每条分数的更新均摊O(1)，阈值在更新后重算一次并缓存。
+// 某模型样本不足MIN_CALIBRATION_SCORES时该模型仍用固定阈值。加载时只保留当前各模型的草图，
+// 某个模型（包括分方向模型、标准化和填充参数）重新训练后指纹改变，从空草图重新积累。
+// 草图只从已被接受的验证中学习，为避免自我强化：只记录分数低于固定阈值的会话（冒充者勉强通过的高分不会把阈值推高），
+// 校准阈值再限制在固定阈值的[-MAX_THRESHOLD_SHIFT, +MAX_THRESHOLD_SHIFT]内（少量偶然的低分不会把阈值拉得过低）。
+// 因此校准只会在限度内收紧阈值，不会放宽
+public class ThresholdCalibrator {
+    private static final String TAG = "ThresholdCalibrator";
+    private static final int FILE_MAGIC = 0x54484332; // "THC2"：每个模型一个草图
+    public static final double DEFAULT_TARGET_FALSE_REJECT_RATE = 0.05;
+    public static final int MIN_CALIBRATION_SCORES = 30;
+    public static final float MAX_THRESHOLD_SHIFT = 0.2f;
+
+    private final File file;
+    private final double targetFalseRejectRate;
+    private final Map<Integer, ScoreQuantileSketch> sketches; // 模型指纹 → 草图，按加载时的模型顺序
+    private final Map<Integer, Float> thresholds = new HashMap<>(); // 缓存的校准阈值，缺失表示需重算
+
+    private ThresholdCalibrator(File file, double targetFalseRejectRate, Map<Integer, ScoreQuantileSketch> sketches) {
+        this.file = file;
+        this.targetFalseRejectRate = targetFalseRejectRate;
+        this.sketches = sketches;
+    }
+
+    // 读取该用户各模型的草图；文件不存在、损坏或为旧格式时从空草图开始，不属于当前任一模型的草图丢弃
+    public static ThresholdCalibrator load(File file, List<OCSVMModel> models, double targetFalseRejectRate) {
+        if (targetFalseRejectRate <= 0 || targetFalseRejectRate >= 1) {
+            throw new IllegalArgumentException("目标拒真率须在(0, 1)之间：" + targetFalseRejectRate);
+        }
+        Map<Integer, ScoreQuantileSketch> sketches = new LinkedHashMap<>();
+        for (OCSVMModel model : models) {
+            sketches.put(modelTag(model), null);
+        }
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_MAGIC) {
+                    Log.w(TAG, "阈值校准文件为旧格式，重新开始");
+                } else {
+                    int count = in.readInt();
+                    if (count < 0 || count > 64) {
+                        throw new IOException("阈值校准文件草图个数错误：" + count);
+                    }
+                    int dropped = 0;
+                    for (int i = 0; i < count; i++) {
+                        int savedTag = in.readInt();
+                        ScoreQuantileSketch sketch = ScoreQuantileSketch.readFrom(in);
+                        if (sketches.containsKey(savedTag)) {
+                            sketches.put(savedTag, sketch);
+                        } else {
+                            dropped++;
+                        }
+                    }
+                    if (dropped > 0) {
+                        Log.w(TAG, dropped + "个模型已更换，其阈值校准重新开始");
+                    }
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "阈值校准文件读取失败，重新开始：" + e.getMessage());
+            }
+        }
+        for (Map.Entry<Integer, ScoreQuantileSketch> entry : sketches.entrySet()) {
+            if (entry.getValue() == null) {
+                entry.setValue(new ScoreQuantileSketch());
+            }
+        }
+        return new ThresholdCalibrator(file, targetFalseRejectRate, sketches);
+    }
+
+    // 该模型校准样本足够时返回其校准阈值（限制在fixedThreshold ± MAX_THRESHOLD_SHIFT内），否则返回fixedThreshold
+    public synchronized float threshold(OCSVMModel model, float fixedThreshold) {
+        int tag = modelTag(model);
+        ScoreQuantileSketch sketch = sketches.get(tag);
+        if (sketch == null || sketch.getN() < MIN_CALIBRATION_SCORES) return fixedThreshold;
+        Float threshold = thresholds.get(tag);
+        if (threshold == null) {
+            threshold = sketch.quantile(1 - targetFalseRejectRate);
+            thresholds.put(tag, threshold);
+        }
+        return Math.max(fixedThreshold - MAX_THRESHOLD_SHIFT, Math.min(fixedThreshold + MAX_THRESHOLD_SHIFT, threshold));
+    }
+
+    // 所有模型累计的样本数
+    public synchronized long getSampleCount() {
+        long n = 0;
+        for (ScoreQuantileSketch sketch : sketches.values()) {
+            n += sketch.getN();
+        }
+        return n;
+    }
+
+    public synchronized long getSampleCount(OCSVMModel model) {
+        ScoreQuantileSketch sketch = sketches.get(modelTag(model));
+        return sketch != null ? sketch.getN() : 0;
+    }
+
+    public double getTargetFalseRejectRate() {
+        return targetFalseRejectRate;
+    }
+
+    // 写入一次判定为本人的验证中各会话的分数，models[i]为打出scores[i]的模型；
+    // 只记录低于fixedThreshold的分数，不在加载时模型之列的分数忽略
+    public synchronized void record(OCSVMModel[] models, float[] scores, float fixedThreshold) {
+        if (models.length != scores.length) {
+            throw new IllegalArgumentException("模型个数与分数个数不一致：" + models.length + " / " + scores.length);
+        }
+        for (int i = 0; i < scores.length; i++) {
+            if (!(scores[i] < fixedThreshold)) continue;
+            int tag = modelTag(models[i]);
+            ScoreQuantileSketch sketch = sketches.get(tag);
+            if (sketch == null) continue;
+            sketch.update(scores[i]);
+            thresholds.remove(tag);
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File tmp = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(sketches.size());
+            for (Map.Entry<Integer, ScoreQuantileSketch> entry : sketches.entrySet()) {
+                out.writeInt(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("阈值校准文件重命名失败：" + file.getAbsolutePath());
+        }
+    }
+
+    private static int modelTag(OCSVMModel model) {
+        return Objects.hash(model.getRawDims(), model.getSupportVectorCount(),
+                Float.floatToIntBits(model.getGamma()), Float.floatToIntBits(model.getIntercept()),
+                Arrays.hashCode(model.getDualCoef()), Arrays.hashCode(model.getScalerMean()),
+                Arrays.hashCode(model.getScalerStd()), Arrays.hashCode(model.getImputerMean()));
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.infer;
+
+import java.util.List;
+
+// 单次遍历的74维触摸特征提取：每个采样点依次调用acceptTouch/acceptSensors（或accept），
+// 所有统计量（均值/方差/最小/最大/路径长度/复杂度）用基本类型累加器在线更新，finish时写入调用方提供的float[]。
+// 结果与原先基于List<Float>的逐组计算一致（均值、方差改用Welford在线算法，差异在浮点舍入范围内）。
+// 实例可重复使用，begin之后的整个提取过程不分配内存；非线程安全，每个提取线程各用一个实例
+public class TouchFeatureExtractor {
+    public static final int FEATURE_COUNT = 74;
+
+    // 特征组在74维向量中的起始下标（与Python训练脚本的列顺序一致）
+    static final int LENGTH_FEATURES = 4;     // 位移长度、移动长度、位移/移动比值
+    static final int ANGLE1_FEATURES = 7;     // 采样点极角的均值/最大/最小/方差
+    static final int ANGLE2_FEATURES = 11;    // 相邻点移动方向角的均值/最大/最小/方差
+    static final int DURATION_FEATURE = 15;
+    static final int SPEED_FEATURES = 16;
+    static final int PRESSURE_FEATURES = 20;
+    static final int AREA_FEATURES = 24;
+    static final int MOVE_ANGLE_FEATURE = 28;
+    static final int SENSOR_FEATURES = 29;    // 加速度XYZ、角速度XYZ、磁力计XYZ，每轴5个：均值/最小/最大/方差/复杂度
+    static final int SENSOR_AXES = 9;
+    static final int AXIS_FEATURES = 5;
+
+    private static final float TWO_PI = 2 * (float) Math.PI;
+
+    private final StatAccumulator angle1 = new StatAccumulator();
+    private final StatAccumulator angle2 = new StatAccumulator();
+    private final StatAccumulator speed = new StatAccumulator();
+    private final StatAccumulator pressure = new StatAccumulator();
+    private final StatAccumulator area = new StatAccumulator();
+    private final AxisAccumulator[] axes = new AxisAccumulator[SENSOR_AXES];
+
+    private boolean needLength, needAngle1, needAngle2, needSpeed, needPressure, needArea;
+    private final boolean[] needAxis = new boolean[SENSOR_AXES];
+
+    private int touchCount;
+    private float firstX, firstY, lastX, lastY;
+    private long firstTime, lastTime;
+    private double moveLength;
+
+    public TouchFeatureExtractor() {
+        for (int k = 0; k < SENSOR_AXES; k++) {
+            axes[k] = new AxisAccumulator();
+        }
+    }
+
+    // 开始一次提取；required为模型需要的原始特征（null表示全部需要），未用到的特征组不计算，输出0
+    public void begin(boolean[] required) {
+        needLength = needs(required, LENGTH_FEATURES, 3);
+        needAngle1 = needs(required, ANGLE1_FEATURES, 4);
+        needAngle2 = needs(required, ANGLE2_FEATURES, 4);
+        needSpeed = needs(required, SPEED_FEATURES, 4);
+        needPressure = needs(required, PRESSURE_FEATURES, 4);
+        needArea = needs(required, AREA_FEATURES, 4);
+        for (int k = 0; k < SENSOR_AXES; k++) {
+            needAxis[k] = needs(required, SENSOR_FEATURES + k * AXIS_FEATURES, AXIS_FEATURES);
+            axes[k].reset();
+        }
+        angle1.reset();
+        angle2.reset();
+        speed.reset();
+        pressure.reset();
+        area.reset();
+        touchCount = 0;
+        moveLength = 0;
+    }
+
+    public void acceptTouch(float x, float y, float pressureValue, float size, long time) {
+        if (touchCount == 0) {
+            firstX = x;
+            firstY = y;
+            firstTime = time;
+        } else {
+            float dx = x - lastX;
+            float dy = y - lastY;
+            double distance = Math.hypot(dx, dy);
+            if (needLength) {
+                moveLength += distance;
+            }
+            if (needAngle2) {
+                angle2.add((float) Math.atan2(dy, dx));
+            }
+            long timeDiff = time - lastTime;
+            if (needSpeed && timeDiff != 0) {
+                speed.add((float) (distance / timeDiff));
+            }
+        }
+        if (needAngle1) {
+            float angle = (float) Math.atan2(y, x);
+            if (angle < 0) angle += TWO_PI;
+            angle1.add(angle);
+        }
+        if (needPressure) {
+            pressure.add(pressureValue);
+        }
+        if (needArea) {
+            area.add(size);
+        }
+        lastX = x;
+        lastY = y;
+        lastTime = time;
+        touchCount++;
+    }
+
+    public void acceptSensors(float accX, float accY, float accZ,
+                              float gyroX, float gyroY, float gyroZ,
+                              float magX, float magY, float magZ) {
+        acceptAxis(0, accX);
+        acceptAxis(1, accY);
+        acceptAxis(2, accZ);
+        acceptAxis(3, gyroX);
+        acceptAxis(4, gyroY);
+        acceptAxis(5, gyroZ);
+        acceptAxis(6, magX);
+        acceptAxis(7, magY);
+        acceptAxis(8, magZ);
+    }
+
+    private void acceptAxis(int axis, float value) {
+        if (needAxis[axis]) {
+            axes[axis].add(value);
+        }
+    }
+
+    public void accept(MainActivity.AllDataModel data) {
+        acceptTouch(data.x, data.y, data.pressure, data.size, data.time);
+        acceptSensors(data.accX, data.accY, data.accZ,
+                data.gyroX, data.gyroY, data.gyroZ,
+                data.magX, data.magY, data.magZ);
+    }
+
+    public int getSampleCount() {
+        return touchCount;
+    }
+
+    // 写入out的前74维（之后可追加频域等扩展特征）；采样点不足2个时返回false，out不变
+    public boolean finish(float[] out) {
+        if (out.length < FEATURE_COUNT) {
+            throw new IllegalArgumentException("特征数组长度错误：至少" + FEATURE_COUNT + "，实际" + out.length);
+        }
+        if (touchCount < 2) return false;
+
+        // 1. 基础位置特征
+        out[0] = firstX;
+        out[1] = firstY;
+        out[2] = lastX;
+        out[3] = lastY;
+
+        // 2. 位移与移动长度特征
+        if (needLength) {
+            double displacement = Math.hypot(lastX - firstX, lastY - firstY);
+            out[LENGTH_FEATURES] = (float) displacement;
+            out[LENGTH_FEATURES + 1] = (float) moveLength;
+            out[LENGTH_FEATURES + 2] = (float) (moveLength == 0 ? 0 : displacement / moveLength);
+        } else {
+            fillSkipped(out, LENGTH_FEATURES, 3);
+        }
+
+        // 3-4. 角度特征，5. 时间特征，6-8. 速度/压力/面积特征
+        writeStats(out, ANGLE1_FEATURES, angle1, needAngle1);
+        writeStats(out, ANGLE2_FEATURES, angle2, needAngle2);
+        out[DURATION_FEATURE] = (float) (lastTime - firstTime);
+        writeStats(out, SPEED_FEATURES, speed, needSpeed);
+        writeStats(out, PRESSURE_FEATURES, pressure, needPressure);
+        writeStats(out, AREA_FEATURES, area, needArea);
+
+        // 9. 移动角度特征
+        float moveAngle = (float) Math.atan2(lastY - firstY, lastX - firstX);
+        if (moveAngle < 0) moveAngle += TWO_PI;
+        out[MOVE_ANGLE_FEATURE] = moveAngle;
+
+        // 10-12. 加速度/角速度/磁力计特征
+        for (int k = 0; k < SENSOR_AXES; k++) {
+            int from = SENSOR_FEATURES + k * AXIS_FEATURES;
+            if (needAxis[k]) {
+                AxisAccumulator axis = axes[k];
+                out[from] = (float) axis.stats.mean();
+                out[from + 1] = (float) axis.stats.min();
+                out[from + 2] = (float) axis.stats.max();
+                out[from + 3] = (float) axis.stats.variance();
+                out[from + 4] = (float) axis.complexity();
+            } else {
+                fillSkipped(out, from, AXIS_FEATURES);
+            }
+        }
+        return true;
+    }
+
+    // 一次性提取整个会话的特征
+    public boolean extract(List<MainActivity.AllDataModel> dataList, boolean[] required, float[] out) {
+        begin(required);
+        for (int i = 0; i < dataList.size(); i++) {
+            accept(dataList.get(i));
+        }
+        return finish(out);
+    }
+
+    // 触摸统计量的输出顺序：均值/最大/最小/方差
+    private static void writeStats(float[] out, int from, StatAccumulator stats, boolean needed) {
+        if (needed) {
+            out[from] = (float) stats.mean();
+            out[from + 1] = (float) stats.max();
+            out[from + 2] = (float) stats.min();
+            out[from + 3] = (float) stats.variance();
+        } else {
+            fillSkipped(out, from, 4);
+        }
+    }
+
+    // 模型带降维投影时未用到的特征填0（投影后不参与打分）
+    private static void fillSkipped(float[] out, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            out[i] = 0f;
+        }
+    }
+
+    // 去掉传感器特征后的需求掩码：传感器特征另行按扩展时间窗计算时，会话内只提取触摸特征
+    public static boolean[] withoutSensorFeatures(boolean[] required) {
+        boolean[] touchOnly = new boolean[FEATURE_COUNT];
+        for (int i = 0; i < SENSOR_FEATURES; i++) {
+            touchOnly[i] = required == null || required[i];
+        }
+        return touchOnly;
+    }
+
+    private static boolean needs(boolean[] required, int from, int count) {
+        if (required == null) return true;
+        for (int i = from; i < from + count; i++) {
+            if (required[i]) return true;
+        }
+        return false;
+    }
+
+    // Welford在线均值/总体方差 + 最小/最大值；无样本时各统计量均为0
+    static final class StatAccumulator {
+        private int count;
+        private double mean;
+        private double m2;
+        private float min;
+        private float max;
+
+        void reset() {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+        }
+
+        void add(float value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            if (count == 1) {
+                min = value;
+                max = value;
+            } else {
+                if (value < min) min = value;
+                if (value > max) max = value;
+            }
+        }
+
+        int count() {
+            return count;
+        }
+
+        double mean() {
+            return count == 0 ? 0.0 : mean;
+        }
+
+        double variance() {
+            return count == 0 ? 0.0 : m2 / count;
+        }
+
+        double min() {
+            return count == 0 ? 0.0 : min;
+        }
+
+        double max() {
+            return count == 0 ? 0.0 : max;
+        }
+    }
+
+    // 传感器单轴：统计量 + 复杂度（相邻采样差值平方和的平方根）
+    static final class AxisAccumulator {
+        final StatAccumulator stats = new StatAccumulator();
+        private float previous;
+        private double sumDiffSq;
+
+        void reset() {
+            stats.reset();
+            sumDiffSq = 0;
+        }
+
+        void add(float value) {
+            if (stats.count() > 0) {
+                double diff = value - previous;
+                sumDiffSq += diff * diff;
+            }
+            previous = value;
+            stats.add(value);
+        }
+
+        double complexity() {
+            return Math.sqrt(sumDiffSq);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.infer;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 按触摸区间切分会话：采样按时间有序、区间按起点有序时，一次归并式扫描即可把采样分配到各会话，O(采样数 + 区间数)。
+// 相邻区间重叠时前一个区间的终点截到下一个起点前1毫秒，因此区间互不重叠，扫描指针只前进不回退。
+// 会话需同时包含按下、滑动中、抬起三类采样才有效，其余类型（如无触摸时的传感器行）不计入会话
+public final class TouchSessionizer {
+    static final int TYPE_PRESS = 1;
+    static final int TYPE_SLIDE = 1 << 1;
+    static final int TYPE_RELEASE = 1 << 2;
+    private static final int TYPE_ALL = TYPE_PRESS | TYPE_SLIDE | TYPE_RELEASE;
+
+    private TouchSessionizer() {}
+
+    public static List<MainActivity.TouchSession> sessionize(List<MainActivity.AllDataModel> sortedSamples,
+                                                           List<long[]> sortedIntervals) {
+        List<MainActivity.TouchSession> sessions = new ArrayList<>();
+        int sampleCount = sortedSamples.size();
+        int p = 0;
+        for (int i = 0; i < sortedIntervals.size(); i++) {
+            long[] interval = sortedIntervals.get(i);
+            long tstart = interval[0];
+            long tend = interval[1];
+
+            if (i < sortedIntervals.size() - 1) {
+                long nextTstart = sortedIntervals.get(i + 1)[0];
+                if (tend >= nextTstart) {
+                    tend = nextTstart - 1;
+                    Log.w("TouchFix", "修正重叠区间：原tend=" + interval[1] + " → 新tend=" + tend);
+                }
+            }
+
+            while (p < sampleCount && sortedSamples.get(p).time < tstart) {
+                p++;
+            }
+
+            MainActivity.TouchSession session = new MainActivity.TouchSession();
+            int seenTypes = 0;
+            for (; p < sampleCount && sortedSamples.get(p).time <= tend; p++) {
+                MainActivity.AllDataModel data = sortedSamples.get(p);
+                int type = touchTypeOf(data.touchType);
+                if (type == 0) continue;
+                seenTypes |= type;
+                session.addData(data);
+            }
+
+            if (seenTypes == TYPE_ALL) {
+                sessions.add(session);
+                Log.d("PreprocessDebug", "[SESSION_ADD] 有效会话" + i + "：数据条数=" + session.getDataList().size());
+            } else {
+                Log.d("PreprocessDebug", "[SESSION_SKIP] 会话" + i + "无效");
+            }
+        }
+        return sessions;
+    }
+
+    // 按下/滑动中/抬起之外的类型返回0
+    static int touchTypeOf(String touchType) {
+        if (touchType == null) return 0;
+        switch (touchType) {
+            case "按下":
+                return TYPE_PRESS;
+            case "滑动中":
+                return TYPE_SLIDE;
+            case "抬起":
+                return TYPE_RELEASE;
+            default:
+                return 0;
+        }
+    }
+}
@@ -99,6 +99,53 @@ def extract_time_domain_features(data):
     return [mean, min_val, max_val, var, complexity]
 
 
+
+SPECTRAL_FFT_SIZE = 64
+SPECTRAL_BANDS = 4
+
+
+def extract_spectral_features(sensor_data, window_start, window_end, sample_rate_hz=50):
+    """提取频域特征（与Java端SpectralFeatureExtractor一致）：每轴4个频带能量占比、主频（Hz）、谱熵（归一化到[0, 1]）
+    每个传感器只取三个轴不全为0的行（该传感器尚无读数，或旧格式数据中其他传感器的行，各轴为0），同一时间戳取最后一行；
+    从window_start起按采样率线性插值重采样为 m = min(64, (window_end - window_start) // 步长 + 1) 个点，
+    去均值、乘Hann窗、补零到64点做FFT，取1..32号频点的功率谱。有效行不足2行时该传感器各特征为0
+    """
+    step = 1000.0 / sample_rate_hz
+    m = min(SPECTRAL_FFT_SIZE, int(math.floor((window_end - window_start) / step)) + 1) if window_end >= window_start else 0
+    half = SPECTRAL_FFT_SIZE // 2
+    feats = []
+    for sensor in ['加速度', '角速度', '磁力计']:
+        axes = [f'{sensor} x', f'{sensor} y', f'{sensor} z']
+        valid = sensor_data[(sensor_data[axes] != 0).any(axis=1)]
+        valid = valid.drop_duplicates(subset='时间戳（毫秒）', keep='last')
+        for axis in axes:
+            if len(valid) < 2 or m < 2:
+                feats.extend([0.0] * (SPECTRAL_BANDS + 2))
+                continue
+            sample_times = window_start + np.arange(m) * step
+            x = np.interp(sample_times, valid['时间戳（毫秒）'].values.astype(float), valid[axis].values.astype(float))
+            x = (x - x.mean()) * np.hanning(m)
+            power = np.abs(np.fft.rfft(x, n=SPECTRAL_FFT_SIZE)[1:half + 1]) ** 2
+            total = power.sum()
+            if total <= 0:
+                feats.extend([0.0] * (SPECTRAL_BANDS + 2))
+                continue
+            feats.extend([band.sum() / total for band in np.array_split(power, SPECTRAL_BANDS)])
+            feats.append((np.argmax(power) + 1) * sample_rate_hz / SPECTRAL_FFT_SIZE)
+            p = power[power > 0] / total
+            feats.append(float(-(p * np.log(p)).sum() / np.log(half)))
+    return feats
+
+
+def spectral_feature_columns():
+    columns = []
+    for sensor in ['加速度', '角速度', '磁力计']:
+        for axis in ['x', 'y', 'z']:
+            columns.extend([f'{sensor} {axis}_频带{b}能量占比' for b in range(1, SPECTRAL_BANDS + 1)])
+            columns.extend([f'{sensor} {axis}_主频', f'{sensor} {axis}_谱熵'])
+    return columns
+
+
 def extract_position_features(touch_core_data):
     """提取位置特征：起始点(x,y)、结束点(x,y)"""
     if len(touch_core_data) == 0:
@@ -234,7 +281,8 @@ def extract_direction_features(touch_core_data):
 
 
 # ---------------------- 第三步：主处理函数（合并预处理和特征提取） ----------------------
-def process_touch_and_extract_features(raw_file_path, t):
+def process_touch_and_extract_features(raw_file_path, t, spectral=False, sample_rate_hz=50):
+    """spectral=True时在74维特征后追加54个频域特征，导出模型时须传 export_model_binary(..., spectral_features=True)"""
     # 1. 预处理原始数据，分配触摸ID（使用t作为预处理时间扩展）
     touch_id_df = process_touch_data(raw_file_path, t)
     if touch_id_df.empty:
@@ -317,6 +365,8 @@ def process_touch_and_extract_features(raw_file_path, t):
         for name, data in sensors:
             time_feats = extract_time_domain_features(data)
             sensor_feats.extend(time_feats)  # 仅添加时域特征，移除频域强度
+        if spectral:
+            sensor_feats.extend(extract_spectral_features(sensor_data, sensor_start, sensor_end, sample_rate_hz))
 
         # 8. 合并所有特征
         all_features.append(touch_feats + sensor_feats)
@@ -353,6 +403,9 @@ def process_touch_and_extract_features(raw_file_path, t):
         for td_name in time_domain_names:
             sensor_columns.append(f'{sensor}_{td_name}')
 
+    if spectral:
+        sensor_columns.extend(spectral_feature_columns())
+
     all_columns = touch_columns + sensor_columns
 
     # 10. 生成特征DataFrame
@@ -609,6 +662,79 @@ def export_model_for_java(ocsvm_model, output_path="ocsvm_params.json"):
     print(f"✅ 模型参数已导出为JSON格式：{output_path}")
 
 
+# ---------------------- 导出二进制模型供Java内存映射加载 ----------------------
+def export_model_binary(ocsvm_model, scaler, imputer=None, output_path="ocsvm_model.bin",
+                        feature_indices=None, projection_matrix=None, spectral_features=False,
+                        fused_sensor_rows=False):
+    """
+    导出与 OCSVMModel.loadBinaryParams 对应的二进制模型（v2，小端）：
+    magic "OCSV" | version | raw_dims | sv_count | gamma | intercept | dims | projection_type | flags |
+    dual_coef[sv_count] | scaler_mean[raw_dims] | scaler_std[raw_dims] | imputer_mean[raw_dims] |
+    projection | support_vectors[sv_count*dims]
+    模型若在降维后的特征上训练，传入 feature_indices（特征选择下标）或 projection_matrix（dims x raw_dims，如PCA的components_），
+    投影作用在填充+标准化之后，Java端据此只提取用到的原始特征
+    flags bit0：特征含频域特征（process_touch_and_extract_features(..., spectral=True)，raw_dims = 74 + 54）
+    flags bit1：训练数据的传感器行是按采样率重采样的融合9轴行（当前采集版本的格式）。旧版采集每个传感器读数单独成行、
+    其余传感器各轴为0，传感器时域统计量与新格式不可比；须用新版采集的数据重新训练，确认后再传 fused_sensor_rows=True，
+    否则Java端加载时会提示模型基于旧格式数据
+    """
+    import struct
+    support_vectors = np.asarray(ocsvm_model.support_vectors_, dtype='<f4')
+    dual_coef = np.asarray(ocsvm_model.dual_coef_, dtype='<f4').reshape(-1)
+    sv_count, dims = support_vectors.shape
+    raw_dims = len(scaler.mean_)
+    # 均值填充不改变训练集均值，未传入imputer时与Java JSON加载逻辑一致，使用scaler均值
+    imputer_mean = imputer.statistics_ if imputer is not None else scaler.mean_
+
+    if feature_indices is not None:
+        projection_type, projection = 1, np.asarray(feature_indices, dtype='<i4')
+    elif projection_matrix is not None:
+        projection_type, projection = 2, np.asarray(projection_matrix, dtype='<f4')
+    else:
+        projection_type, projection = 0, np.zeros(0, dtype='<f4')
+    if projection_type != 0 and len(projection) != dims:
+        raise ValueError(f"投影输出维度{len(projection)}与支持向量维度{dims}不一致")
+
+    with open(output_path, "wb") as f:
+        f.write(b"OCSV")
+        f.write(struct.pack("<iiiff", 2, raw_dims, sv_count,
+                            float(ocsvm_model.gamma), float(np.ravel(ocsvm_model.intercept_)[0])))
+        flags = (1 if spectral_features else 0) | (2 if fused_sensor_rows else 0)
+        f.write(struct.pack("<iii", dims, projection_type, flags))
+        f.write(dual_coef.tobytes())
+        f.write(np.asarray(scaler.mean_, dtype='<f4').tobytes())
+        f.write(np.asarray(scaler.scale_, dtype='<f4').tobytes())
+        f.write(np.asarray(imputer_mean, dtype='<f4').tobytes())
+        f.write(np.ascontiguousarray(projection).tobytes())
+        f.write(np.ascontiguousarray(support_vectors).tobytes())
+    print(f"✅ 二进制模型已导出：{output_path}（支持向量{sv_count}个，维度{raw_dims}→{dims}）")
+
+
+# Java端 OCSVMModelBundle 的方向名与模型文件后缀
+DIRECTION_MODEL_NAMES = {'左滑': 'left', '右滑': 'right', '上滑': 'up', '下滑': 'down'}
+
+
+def export_direction_models(X_train_scaled, directions, scaler, imputer=None, best_params=None,
+                            spectral_features=False, fused_sensor_rows=False, min_samples=30):
+    """
+    按滑动方向各训练一个OCSVM并导出为 ocsvm_model_<left/right/up/down>.bin，供 OCSVMModelBundle 按方向路由。
+    X_train_scaled 须是全局 imputer+scaler 处理后的训练特征，directions 是与其逐行对应的滑动方向（'左滑'等）；
+    导出时写入全局的 scaler/imputer、spectral_features 和 fused_sensor_rows，Java端会拒绝原始特征布局或填充/标准化参数与全局模型不一致的方向模型。
+    样本数少于 min_samples 的方向不导出，运行时回退到全局模型
+    """
+    directions = np.asarray(directions)
+    if len(directions) != len(X_train_scaled):
+        raise ValueError(f"方向标签{len(directions)}个与训练样本{len(X_train_scaled)}个不一致")
+    for direction, name in DIRECTION_MODEL_NAMES.items():
+        X_dir = X_train_scaled[directions == direction]
+        if len(X_dir) < min_samples:
+            print(f"⚠️ {direction}样本{len(X_dir)}个，少于{min_samples}个，不导出方向模型")
+            continue
+        model = train_ocsvm(X_dir, best_params)
+        export_model_binary(model, scaler, imputer, output_path=f"ocsvm_model_{name}.bin",
+                            spectral_features=spectral_features, fused_sensor_rows=fused_sensor_rows)
+
+
 # ---------------------- 主函数 ----------------------
 if __name__ == "__main__":
     print("===== 触摸数据特征提取和OCSVM训练工具 =====")
@@ -693,4 +819,7 @@ if __name__ == "__main__":
     save_model_and_scaler(ocsvm_model, scaler)
     
     # 步骤6：导出模型参数供Java使用
-    export_model_for_java(ocsvm_model)
\ No newline at end of file
+    # 正负样本CSV若由当前版本采集（传感器行为融合9轴行），导出时传 fused_sensor_rows=True；
+    # 旧版采集的数据（每个传感器读数单独成行）训练出的模型与当前采集不匹配，应重新采集训练
+    export_model_for_java(ocsvm_model)
+    export_model_binary(ocsvm_model, scaler, imputer)